@@ -0,0 +1,62 @@
+package com.example.kontaktiotask.benchmark;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.dto.AssetDTO;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Asset asset(long id) {
+        return Asset.builder()
+                .id(id)
+                .name("Beacon " + id)
+                .type(id % 2 == 0 ? "BEACON" : "TAG")
+                .description("Asset number " + id + " tracked on floor " + id % 10)
+                .groups(new HashSet<>())
+                .build();
+    }
+
+    static List<Asset> assets(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(BenchmarkData::asset).toList();
+    }
+
+    static List<AssetDTO> assetDtos(int count) {
+        return assets(count).stream().map(AssetDTO::fromEntity).toList();
+    }
+
+    static List<Group> groups(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> Group.builder()
+                        .id(id)
+                        .name("Zone " + id)
+                        .description("Zone number " + id)
+                        .assets(new HashSet<>())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * In-memory stand-in for a Spring Data repository; only the listed methods are answered, so a benchmark
+     * fails loudly if the code under test starts calling something else.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+}
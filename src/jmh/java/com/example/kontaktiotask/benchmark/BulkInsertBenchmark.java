@@ -0,0 +1,73 @@
+package com.example.kontaktiotask.benchmark;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.command.BatchAssetCommand;
+import com.example.kontaktiotask.model.command.CreateAssetCommand;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.service.AssetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Creating {@code rows} assets in one transaction, through Hibernate ({@code saveAll}) and through the
+ * JDBC batch endpoint. {@code hibernate.jdbc.batch_size=1} approximates the old IDENTITY mapping, where
+ * every persist had to run its INSERT immediately to learn the id. Needs PostgreSQL, see
+ * {@link EndToEndBenchmark}:
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="BulkInsert -jvmArgsAppend -Dspring.datasource.url=jdbc:postgresql://localhost:5432/kontaktio"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    @Param({"1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private AssetRepository assetRepository;
+    private AssetService assetService;
+    private TransactionTemplate transactionTemplate;
+    private List<CreateAssetCommand> commands;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = EndToEndBenchmark.startWithEmptySchema("--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        assetRepository = context.getBean(AssetRepository.class);
+        assetService = context.getBean(AssetService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        commands = IntStream.range(0, rows)
+                .mapToObj(i -> new CreateAssetCommand("Beacon " + i, "BEACON", "Bulk asset " + i))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int jpaSaveAll() {
+        List<Asset> assets = commands.stream()
+                .map(command -> Asset.builder().name(command.name()).type(command.type()).description(command.description()).build())
+                .toList();
+        return transactionTemplate.execute(status -> assetRepository.saveAll(assets).size());
+    }
+
+    @Benchmark
+    public int jdbcBatch() {
+        return assetService.batch(new BatchAssetCommand(commands, null, null)).create().size();
+    }
+}
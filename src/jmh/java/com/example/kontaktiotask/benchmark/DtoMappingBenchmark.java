@@ -0,0 +1,41 @@
+package com.example.kontaktiotask.benchmark;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<Asset> assets;
+    private List<Group> groups;
+
+    @Setup
+    public void setup() {
+        assets = BenchmarkData.assets(size);
+        groups = BenchmarkData.groups(size);
+    }
+
+    @Benchmark
+    public List<AssetDTO> mapAssets() {
+        return assets.stream().map(AssetDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<GroupDTO> mapGroups() {
+        return groups.stream().map(GroupDTO::fromEntity).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.kontaktiotask.benchmark;
+
+import com.example.kontaktiotask.KontaktIoTaskApplication;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSearchCommand;
+import com.example.kontaktiotask.model.command.BatchAssetCommand;
+import com.example.kontaktiotask.model.command.CreateAssetCommand;
+import com.example.kontaktiotask.model.command.CreateGroupCommand;
+import com.example.kontaktiotask.model.dto.BatchAssetResultDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.service.AssetService;
+import com.example.kontaktiotask.service.GroupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Service calls against a real PostgreSQL. Excluded from the default run; start the database from
+ * docker-compose (or point elsewhere) and run:
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="EndToEnd -jvmArgsAppend -Dspring.datasource.url=jdbc:postgresql://localhost:5432/kontaktio"
+ * </pre>
+ * The schema is dropped and migrated again on start, so never aim this at a database holding real data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"10000"})
+    private int assetCount;
+
+    private ConfigurableApplicationContext context;
+    private AssetService assetService;
+    private GroupService groupService;
+    private Long groupId;
+    private AssetIdsCommand membershipChange;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = startWithEmptySchema();
+        assetService = context.getBean(AssetService.class);
+        groupService = context.getBean(GroupService.class);
+
+        List<CreateAssetCommand> assets = IntStream.range(0, assetCount)
+                .mapToObj(i -> new CreateAssetCommand("Beacon " + i, "BEACON", "Seeded asset " + i))
+                .toList();
+        List<Long> assetIds = assetService.batch(new BatchAssetCommand(assets, null, null)).create()
+                .stream()
+                .map(BatchAssetResultDTO.ItemResult::id)
+                .toList();
+        groupId = groupService.create(new CreateGroupCommand("Benchmark zone", null, null)).getId();
+        membershipChange = new AssetIdsCommand(assetIds.subList(0, Math.min(100, assetIds.size())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Starts the application without the web layer on a schema rebuilt from the migrations. The rebuild is
+     * the migration strategy, so it happens before anything else touches the database: the membership index
+     * and the caches start out on the empty schema. Arguments are passed as command-line arguments, because
+     * application.yaml would override builder default properties.
+     */
+    static ConfigurableApplicationContext startWithEmptySchema(String... args) {
+        return new SpringApplicationBuilder(KontaktIoTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers((GenericApplicationContext context) -> context.registerBean(
+                        FlywayMigrationStrategy.class, () -> flyway -> {
+                            flyway.clean();
+                            flyway.migrate();
+                        }))
+                .run(Stream.concat(Stream.of("--spring.jpa.show-sql=false", "--spring.flyway.clean-disabled=false"),
+                        Arrays.stream(args)).toArray(String[]::new));
+    }
+
+    @Benchmark
+    public KeysetPage<?> findFirstPage() {
+        return assetService.findPage(AssetSearchCommand.NONE, null, 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int streamAll() {
+        AtomicInteger rows = new AtomicInteger();
+        assetService.streamAll(asset -> rows.incrementAndGet());
+        return rows.get();
+    }
+
+    @Benchmark
+    public Object createAsset() {
+        return assetService.create(new CreateAssetCommand("Created " + sequence.incrementAndGet(), "BEACON", null));
+    }
+
+    @Benchmark
+    public int addAndRemoveHundredMembers() {
+        return groupService.addAssets(groupId, membershipChange).affected()
+                + groupService.removeAssets(groupId, membershipChange).affected();
+    }
+}
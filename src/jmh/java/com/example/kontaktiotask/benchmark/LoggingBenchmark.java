@@ -0,0 +1,116 @@
+package com.example.kontaktiotask.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.example.kontaktiotask.service.AssetService;
+import com.example.kontaktiotask.service.GroupAssetsCacheEvictor;
+import com.example.kontaktiotask.service.GroupService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost on the {@link GroupService#addAsset}/{@link GroupService#removeAsset} hot path, with the
+ * repositories in memory so the log lines are a visible share. Output goes to a discarding stream through
+ * Boot's console pattern, so formatting and encoding are measured but not the terminal.
+ * <ul>
+ *     <li>{@code sync-debug}: every hot-path line formatted on the calling thread, as with the former INFO logs</li>
+ *     <li>{@code async-debug}: the same lines handed to an {@link AsyncAppender}</li>
+ *     <li>{@code async-info}: the async-logging profile; hot-path lines are DEBUG and skipped</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final long GROUP_ID = 1L;
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    @Param({"sync-debug", "async-debug", "async-info"})
+    private String mode;
+
+    private GroupService groupService;
+    private long candidateId;
+    private Appender<ILoggingEvent> appender;
+
+    @Setup
+    public void setup() {
+        Set<Long> memberIds = new HashSet<>();
+        BenchmarkData.assets(10).forEach(asset -> memberIds.add(asset.getId()));
+        candidateId = 11L;
+
+        GroupRepository groupRepository = BenchmarkData.repository(GroupRepository.class, Map.of(
+                "existsById", args -> true,
+                "addAssets", args -> MembershipBenchmark.count(args[1], memberIds::add),
+                "removeAssets", args -> MembershipBenchmark.count(args[1], memberIds::remove),
+                "incrementVersion", args -> 1,
+                "findAncestorIds", args -> Set.of()));
+        AssetRepository assetRepository = BenchmarkData.repository(AssetRepository.class, Map.of(
+                "existsById", args -> true));
+        groupService = new GroupService(groupRepository, new AssetService(assetRepository, null, null, null), null,
+                new GroupAssetsCacheEvictor(new CaffeineCacheManager()));
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        appender = mode.startsWith("async") ? asyncAppender(context) : discardingAppender(context);
+        Logger serviceLogger = context.getLogger("com.example.kontaktiotask.service");
+        serviceLogger.setAdditive(false);
+        serviceLogger.setLevel(mode.endsWith("debug") ? Level.DEBUG : Level.INFO);
+        serviceLogger.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Logger serviceLogger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger("com.example.kontaktiotask.service");
+        serviceLogger.detachAppender(appender);
+        serviceLogger.setAdditive(true);
+        serviceLogger.setLevel(null);
+        appender.stop();
+    }
+
+    @Benchmark
+    public void addAndRemoveAsset() {
+        groupService.addAsset(GROUP_ID, candidateId);
+        groupService.removeAsset(GROUP_ID, candidateId);
+    }
+
+    private static Appender<ILoggingEvent> discardingAppender(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private static Appender<ILoggingEvent> asyncAppender(LoggerContext context) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.addAppender(discardingAppender(context));
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.kontaktiotask.benchmark;
+
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.example.kontaktiotask.service.AssetService;
+import com.example.kontaktiotask.service.GroupAssetsCacheEvictor;
+import com.example.kontaktiotask.service.GroupService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * {@link GroupService#addAsset} and {@link GroupService#removeAsset} against in-memory repositories, so only
+ * the service's own work is measured. Each invocation adds and then removes the same asset to keep the group
+ * size fixed. The service hands single-row statements to the repository instead of loading the group's
+ * collection, so the cost should not grow with {@code members}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MembershipBenchmark {
+
+    private static final long GROUP_ID = 1L;
+
+    @Param({"10", "1000", "100000"})
+    private int members;
+
+    private GroupService groupService;
+    private long candidateId;
+
+    @Setup
+    public void setup() {
+        Set<Long> memberIds = new HashSet<>();
+        BenchmarkData.assets(members).forEach(asset -> memberIds.add(asset.getId()));
+        candidateId = members + 1L;
+
+        GroupRepository groupRepository = BenchmarkData.repository(GroupRepository.class, Map.of(
+                "existsById", args -> true,
+                "addAssets", args -> count(args[1], memberIds::add),
+                "removeAssets", args -> count(args[1], memberIds::remove),
+                "incrementVersion", args -> 1,
+                "findAncestorIds", args -> Set.of()));
+        AssetRepository assetRepository = BenchmarkData.repository(AssetRepository.class, Map.of(
+                "existsById", args -> true));
+        groupService = new GroupService(groupRepository, new AssetService(assetRepository, null, null, null), null,
+                new GroupAssetsCacheEvictor(new CaffeineCacheManager()));
+    }
+
+    static int count(Object assetIds, Predicate<Long> change) {
+        int changed = 0;
+        for (Object assetId : (Collection<?>) assetIds) {
+            if (change.test((Long) assetId)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Benchmark
+    public void addAndRemoveAsset() {
+        groupService.addAsset(GROUP_ID, candidateId);
+        groupService.removeAsset(GROUP_ID, candidateId);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.kontaktiotask.benchmark;
+
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of writing a large asset listing, both as the single array returned by the paged endpoint, in each
+ * negotiable format with and without gzip, and as the line-per-asset NDJSON stream. The payload sizes are
+ * printed once per trial, since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private List<AssetDTO> assets;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        // configured as in WireFormatConfig
+        smileMapper = Jackson2ObjectMapperBuilder.smile()
+                .factory(SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build())
+                .build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().factory(new CBORFactory()).build();
+        assets = BenchmarkData.assetDtos(size);
+    }
+
+    @TearDown
+    public void printPayloadSizes() throws IOException {
+        System.out.printf("%n%d assets: json %d B (gzip %d B), smile %d B (gzip %d B), cbor %d B (gzip %d B)%n", size,
+                writeJsonArray().length, writeJsonArrayGzip().length,
+                writeSmileArray().length, writeSmileArrayGzip().length,
+                writeCborArray().length, writeCborArrayGzip().length);
+    }
+
+    @Benchmark
+    public byte[] writeJsonArray() throws IOException {
+        return objectMapper.writeValueAsBytes(assets);
+    }
+
+    @Benchmark
+    public byte[] writeJsonArrayGzip() throws IOException {
+        return gzip(objectMapper);
+    }
+
+    @Benchmark
+    public byte[] writeSmileArray() throws IOException {
+        return smileMapper.writeValueAsBytes(assets);
+    }
+
+    @Benchmark
+    public byte[] writeSmileArrayGzip() throws IOException {
+        return gzip(smileMapper);
+    }
+
+    @Benchmark
+    public byte[] writeCborArray() throws IOException {
+        return cborMapper.writeValueAsBytes(assets);
+    }
+
+    @Benchmark
+    public byte[] writeCborArrayGzip() throws IOException {
+        return gzip(cborMapper);
+    }
+
+    @Benchmark
+    public int writeNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (AssetDTO asset : assets) {
+            out.write(objectMapper.writeValueAsBytes(asset));
+            out.write('\n');
+        }
+        return out.size();
+    }
+
+    // streams through the compressor as the servlet container does, rather than compressing a finished array
+    private byte[] gzip(ObjectMapper mapper) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            mapper.writeValue(gzip, assets);
+        }
+        return out.toByteArray();
+    }
+}
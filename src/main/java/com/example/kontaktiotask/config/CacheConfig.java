@@ -0,0 +1,42 @@
+package com.example.kontaktiotask.config;
+
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(ReadCacheProperties.class)
+public class CacheConfig {
+
+    public static final String ASSETS = "assets";
+    public static final String GROUP_ASSETS = "groupAssets";
+
+    /**
+     * Evictions are deferred until the surrounding transaction commits, so a concurrent reader cannot
+     * re-populate an entry with the row we are about to overwrite.
+     */
+    @Bean
+    public CacheManager cacheManager(ReadCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ASSETS, Caffeine.newBuilder()
+                .maximumSize(properties.assets().maximumSize())
+                .expireAfterWrite(properties.assets().ttl())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(GROUP_ASSETS, Caffeine.newBuilder()
+                .maximumWeight(properties.groupAssets().maximumSize())
+                // a page weighs one per asset it holds; a subtree count weighs one
+                .<Object, Object>weigher((key, value) -> value instanceof KeysetPage<?> page ? Math.max(1, page.items().size()) : 1)
+                .expireAfterWrite(properties.groupAssets().ttl())
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.kontaktiotask.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.change-feed")
+public record ChangeFeedProperties(int batchSize, Duration maxWait) {
+}
@@ -0,0 +1,18 @@
+package com.example.kontaktiotask.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Setting {@code max-concurrent-requests} alone turns the limit on; the acquire timeout then defaults to 2s.
+ */
+@Validated
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public record ConcurrencyLimitProperties(@Positive int maxConcurrentRequests,
+                                         @NotNull @DefaultValue("2s") Duration acquireTimeout) {
+}
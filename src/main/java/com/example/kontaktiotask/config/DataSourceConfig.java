@@ -0,0 +1,64 @@
+package com.example.kontaktiotask.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, ReadDataSourceProperties.class})
+public class DataSourceConfig {
+
+    /**
+     * Boot backs off its own DataSource as soon as an R2DBC ConnectionFactory exists, so the JDBC pool
+     * used by JPA is declared here from the same {@code spring.datasource} properties.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties, ReadDataSourceProperties read) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(read.url() != null ? read.url() : properties.determineUrl())
+                .username(read.username() != null ? read.username() : properties.determineUsername())
+                .password(read.password() != null ? read.password() : properties.determinePassword())
+                .build();
+    }
+
+    /**
+     * The DataSource JPA, JdbcTemplate and Flyway use. No physical connection is taken until the first
+     * statement, by which time the transaction manager has marked the connection read-only or not, so
+     * {@code @Transactional(readOnly = true)} work lands on the read pool and everything else on the write
+     * pool. Each pool has its own size, so a burst of reads cannot hold the connections writes need.
+     * <p>
+     * Reads whose result is cached ({@code AssetService.findById}, the group asset pages and subtree counts)
+     * are read-write transactions on purpose. They refill the cache right after a write evicted it, and a
+     * lagging replica would hand them the rows from before that write, which would then be served for the
+     * whole cache TTL. {@code GroupService.requireExists} stays on the write pool too, so a group created a
+     * moment ago is never reported missing. Reads that are not cached only ever lag as much as the replica.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") HikariDataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.kontaktiotask.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets through roughly one in {@code sampleEvery} enabled events below WARN and drops the rest before a
+ * {@code LoggingEvent} is even allocated. WARN and ERROR are never sampled. Wired from logback-spring.xml
+ * for the async-logging profile; {@code sampleEvery <= 1} turns sampling off.
+ */
+@Setter
+public class LogSamplingTurboFilter extends TurboFilter {
+
+    private int sampleEvery = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (sampleEvery <= 1 || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(sampleEvery) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.kontaktiotask.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.membership-queue")
+public record MembershipQueueProperties(boolean enabled, int maxPending, int batchSize, int maxBatchesPerFlush,
+                                        Duration flushInterval) {
+}
@@ -0,0 +1,16 @@
+package com.example.kontaktiotask.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-process read caches. For {@code groupAssets} the size is the total number of assets
+ * held across all cached pages, not the number of pages, so a run of large pages cannot blow the heap.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public record ReadCacheProperties(Spec assets, Spec groupAssets) {
+
+    public record Spec(long maximumSize, Duration ttl) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.kontaktiotask.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection settings of the pool that serves read-only transactions. Any value left unset is taken from
+ * {@code spring.datasource}, so without a replica the reads still get a pool of their own on the primary.
+ */
+@ConfigurationProperties(prefix = "app.datasource.read")
+public record ReadDataSourceProperties(String url, String username, String password) {
+}
@@ -0,0 +1,13 @@
+package com.example.kontaktiotask.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} change-feed relay and membership index refresh on Boot's scheduler. The
+ * membership write queue flushes on a thread of its own, so a backlog there never delays either of them.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,37 @@
+package com.example.kontaktiotask.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON, picked by the {@code Accept} header: {@code application/x-jackson-smile} and
+ * {@code application/cbor}. JSON stays the default for clients that ask for neither. Both mappers come from
+ * Boot's builder so they share the JSON mapper's modules and settings; these beans take the place of the
+ * converters Spring MVC would otherwise register with a plain builder.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * A listing repeats a handful of asset types on every row; with shared string values each repeat after
+     * the first is written as a one-byte back-reference, the same way Smile already writes repeated field names.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.kontaktiotask.controller;
+
+import com.example.kontaktiotask.model.command.BatchAssetCommand;
+import com.example.kontaktiotask.model.dto.BatchAssetResultDTO;
+import com.example.kontaktiotask.service.AssetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/assets:batch")
+@RequiredArgsConstructor
+public class AssetBatchController {
+
+    private final AssetService assetService;
+
+    @PostMapping
+    public BatchAssetResultDTO execute(@RequestBody BatchAssetCommand command) {
+        return assetService.batch(command);
+    }
+
+}
@@ -1,13 +1,27 @@
 package com.example.kontaktiotask.controller;
 
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSearchCommand;
 import com.example.kontaktiotask.model.command.CreateAssetCommand;
 import com.example.kontaktiotask.model.command.UpdateAssetCommand;
+import com.example.kontaktiotask.model.command.UpdateLockMode;
 import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.DeleteResultDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
 import com.example.kontaktiotask.service.AssetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -16,18 +30,40 @@ import java.util.List;
 public class AssetController {
 
     private final AssetService assetService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<AssetDTO> findAll() {
-        return assetService.findAll()
-                .stream()
-                .map(AssetDTO::fromEntity)
-                .toList();
+    public ResponseEntity<List<AssetDTO>> findAll(@RequestParam(required = false) String after,
+                                                  @RequestParam(defaultValue = "100") int limit,
+                                                  @RequestParam(required = false) String type,
+                                                  @RequestParam(required = false) String namePrefix,
+                                                  @RequestParam(required = false) String q) {
+        AssetSearchCommand search = new AssetSearchCommand(type, namePrefix, q);
+        KeysetPage<AssetRow> page = assetService.findPage(search, KeysetPage.decodeCursor(after), limit);
+        return KeysetResponses.ok(page, limit, AssetRow::toDTO, ETags.of(page));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll() {
+        return outputStream -> assetService.streamAll(asset -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(asset));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     @GetMapping("/{id}")
-    public AssetDTO findById(@PathVariable Long id) {
-        return AssetDTO.fromEntity(assetService.findById(id));
+    public ResponseEntity<AssetDTO> findById(@PathVariable Long id, WebRequest request) {
+        // tag and body come from the same, possibly cached, row, so a 304 never confirms a body older than its tag
+        AssetRow asset = assetService.findById(id);
+        String eTag = ETags.of(asset.version());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(asset.toDTO());
     }
 
     @PostMapping
@@ -36,6 +72,11 @@ public class AssetController {
         return AssetDTO.fromEntity(assetService.create(command));
     }
 
+    @DeleteMapping
+    public DeleteResultDTO deleteAll(@RequestBody AssetIdsCommand command) {
+        return assetService.deleteAllById(command);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteById(@PathVariable Long id) {
@@ -43,8 +84,9 @@ public class AssetController {
     }
 
     @PutMapping("/{id}")
-    public AssetDTO update(@PathVariable Long id, @RequestBody UpdateAssetCommand command) {
-        return AssetDTO.fromEntity(assetService.update(id, command));
+    public AssetDTO update(@PathVariable Long id, @RequestBody UpdateAssetCommand command,
+                           @RequestParam(defaultValue = "OPTIMISTIC") UpdateLockMode lock) {
+        return AssetDTO.fromEntity(assetService.update(id, command, lock));
     }
 
 }
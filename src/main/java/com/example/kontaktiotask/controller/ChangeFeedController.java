@@ -0,0 +1,38 @@
+package com.example.kontaktiotask.controller;
+
+import com.example.kontaktiotask.model.dto.ChangeFeedDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.service.ChangeFeedRelay;
+import com.example.kontaktiotask.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+/**
+ * Ordered feed of every asset and group mutation, for consumers that would otherwise re-scan the
+ * listings to find out what changed. Without {@code after} the feed is read from its start; with nothing
+ * new after it, the request is held for up to {@code waitSeconds} before answering with no events.
+ */
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+    private final ChangeFeedRelay changeFeedRelay;
+
+    @GetMapping
+    public DeferredResult<ChangeFeedDTO> poll(@RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "100") int limit,
+                                              @RequestParam(defaultValue = "20") int waitSeconds) {
+        Long position = KeysetPage.decodeCursor(after);
+        return changeFeedRelay.poll(position == null ? 0L : position, limit, Duration.ofSeconds(waitSeconds));
+    }
+
+    @GetMapping("/head")
+    public ChangeFeedDTO head() {
+        return changeFeedService.head();
+    }
+}
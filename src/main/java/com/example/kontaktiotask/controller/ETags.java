@@ -0,0 +1,40 @@
+package com.example.kontaktiotask.controller;
+
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import org.springframework.util.DigestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Entity tags derived from {@code @Version} columns rather than from response bodies. Where the body may come
+ * from a read cache the tag is built from that same value, so a 304 never vouches for a body the tag does not
+ * describe. The tags are weak: one tag stands for the same data in JSON, Smile or CBOR, gzipped or not, and
+ * Tomcat will not compress a response carrying a strong tag.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    static String of(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Digest of the ids and versions on the page plus its cursor: it changes whenever a row on the page is
+     * updated, a row enters or leaves the page, or the page stops or starts having a successor.
+     */
+    static String of(KeysetPage<AssetRow> page) {
+        ByteBuffer buffer = ByteBuffer.allocate(page.items().size() * (Long.BYTES + Integer.BYTES));
+        page.items().forEach(row -> buffer.putLong(row.id()).putInt(row.version()));
+        byte[] next = page.next() == null ? new byte[0] : page.next().getBytes(StandardCharsets.UTF_8);
+        byte[] content = ByteBuffer.allocate(buffer.capacity() + next.length).put(buffer.array()).put(next).array();
+        return "W/\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+    }
+}
@@ -1,27 +1,41 @@
 package com.example.kontaktiotask.controller;
 
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSortOrder;
 import com.example.kontaktiotask.model.command.CreateGroupCommand;
+import com.example.kontaktiotask.model.command.MoveGroupCommand;
 import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.CountDTO;
 import com.example.kontaktiotask.model.dto.GroupDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.model.dto.MembershipChangeDTO;
 import com.example.kontaktiotask.service.GroupService;
+import com.example.kontaktiotask.service.MembershipWriteQueue;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/groups")
 @RequiredArgsConstructor
 public class GroupController {
     private final GroupService groupService;
+    private final Optional<MembershipWriteQueue> membershipWriteQueue;
 
     @GetMapping
-    public List<GroupDTO> findAll() {
-        return groupService.findAll()
-                .stream()
-                .map(GroupDTO::fromEntity)
-                .toList();
+    public ResponseEntity<List<GroupDTO>> findAll(WebRequest request) {
+        String eTag = ETags.of(groupService.findListVersion());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(groupService.findAll());
     }
 
     @PostMapping
@@ -30,24 +44,79 @@ public class GroupController {
         return GroupDTO.fromEntity(groupService.create(command));
     }
 
+    @PutMapping("/{id}/parent")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void move(@PathVariable Long id, @RequestBody MoveGroupCommand command) {
+        groupService.move(id, command);
+    }
+
+    /**
+     * With {@code transitive=true} the listing also covers every group nested under this one, at any depth.
+     */
     @GetMapping("/{id}/assets")
-    public List<AssetDTO> findGroupAssets(@PathVariable Long id) {
-        return groupService.findGroupAssets(id).
-                stream()
-                .map(AssetDTO::fromEntity)
-                .toList();
+    public ResponseEntity<List<AssetDTO>> findGroupAssets(@PathVariable Long id,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(defaultValue = "100") int limit,
+                                                          @RequestParam(defaultValue = "ID_ASC") AssetSortOrder sort,
+                                                          @RequestParam(defaultValue = "false") boolean transitive,
+                                                          WebRequest request) {
+        KeysetPage.Position position = KeysetPage.decodePosition(after);
+        KeysetPage<AssetRow> page = transitive
+                ? groupService.findSubtreeAssets(id, sort, position, limit)
+                : groupService.findGroupAssets(id, sort, position, limit);
+        // the tag is built from the page itself, cached or not, so it cannot vouch for a different body
+        String eTag = ETags.of(page);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return KeysetResponses.ok(page, limit, AssetRow::toDTO, eTag);
+    }
+
+    @GetMapping("/{id}/assets/count")
+    public CountDTO countGroupAssets(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean transitive) {
+        return new CountDTO(transitive ? groupService.countSubtreeAssets(id) : groupService.countAssets(id));
+    }
+
+    @GetMapping("/{groupId}/assets/{assetId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void checkMembership(@PathVariable Long groupId, @PathVariable Long assetId) {
+        groupService.requireMember(groupId, assetId);
+    }
+
+    @PostMapping("/{groupId}/assets")
+    public MembershipChangeDTO addAssets(@PathVariable Long groupId, @RequestBody AssetIdsCommand command) {
+        return groupService.addAssets(groupId, command);
     }
 
+    @DeleteMapping("/{groupId}/assets")
+    public MembershipChangeDTO removeAssets(@PathVariable Long groupId, @RequestBody AssetIdsCommand command) {
+        return groupService.removeAssets(groupId, command);
+    }
+
+    /**
+     * With {@code async=true} and the membership queue enabled the change is queued and answered with 202;
+     * otherwise, or with the queue disabled, it is applied before the response.
+     */
     @PostMapping("/{groupId}/assets/{assetId}")
-    @ResponseStatus(HttpStatus.CREATED)
-    public void addAsset(@PathVariable Long groupId, @PathVariable Long assetId) {
+    public ResponseEntity<Void> addAsset(@PathVariable Long groupId, @PathVariable Long assetId,
+                                         @RequestParam(defaultValue = "false") boolean async) {
+        if (async && membershipWriteQueue.isPresent()) {
+            membershipWriteQueue.get().add(groupId, assetId);
+            return ResponseEntity.accepted().build();
+        }
         groupService.addAsset(groupId, assetId);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
     @DeleteMapping("/{groupId}/assets/{assetId}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void removeAsset(@PathVariable Long groupId, @PathVariable Long assetId) {
+    public ResponseEntity<Void> removeAsset(@PathVariable Long groupId, @PathVariable Long assetId,
+                                            @RequestParam(defaultValue = "false") boolean async) {
+        if (async && membershipWriteQueue.isPresent()) {
+            membershipWriteQueue.get().remove(groupId, assetId);
+            return ResponseEntity.accepted().build();
+        }
         groupService.removeAsset(groupId, assetId);
+        return ResponseEntity.noContent().build();
     }
 
 }
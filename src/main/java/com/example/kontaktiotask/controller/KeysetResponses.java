@@ -0,0 +1,35 @@
+package com.example.kontaktiotask.controller;
+
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Renders a {@link KeysetPage} as an array in the negotiated format (JSON, Smile or CBOR), with the next page
+ * advertised in a {@code Link} header that keeps every other query parameter of the current request. A matching
+ * {@code If-None-Match} turns the response into a bodiless 304.
+ */
+final class KeysetResponses {
+
+    private KeysetResponses() {
+    }
+
+    static <T, R> ResponseEntity<List<R>> ok(KeysetPage<T> page, int limit, Function<T, R> mapper, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+        if (page.next() != null) {
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.next())
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page.items()
+                .stream()
+                .map(mapper)
+                .toList());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.kontaktiotask.controller;
+
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.model.dto.MembershipQueryDTO;
+import com.example.kontaktiotask.service.MembershipIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Set queries over group membership, answered from {@link MembershipIndex} without a database round trip,
+ * e.g. {@code /assets?allOf=1,2&noneOf=3} for the assets in groups 1 and 2 but not in group 3. The answers
+ * trail writes by up to one change feed relay interval.
+ */
+@RestController
+@RequestMapping("/api/v1/memberships")
+@RequiredArgsConstructor
+public class MembershipController {
+
+    private final MembershipIndex membershipIndex;
+
+    @GetMapping("/assets")
+    public MembershipQueryDTO findAssets(@RequestParam(defaultValue = "") List<Long> allOf,
+                                         @RequestParam(defaultValue = "") List<Long> anyOf,
+                                         @RequestParam(defaultValue = "") List<Long> noneOf,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        return membershipIndex.query(allOf, anyOf, noneOf, KeysetPage.decodeCursor(after), limit);
+    }
+
+    @GetMapping("/assets/{assetId}/groups")
+    public List<Long> findGroupIds(@PathVariable Long assetId) {
+        return membershipIndex.findGroupIds(assetId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.kontaktiotask.controller;
+
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.service.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variants of the GET endpoints. Streams are written as NDJSON or server-sent events one
+ * element at a time, and the next row is requested from R2DBC only after the previous one was written,
+ * so the request thread is released while the client reads.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive")
+@RequiredArgsConstructor
+public class ReactiveReadController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    @GetMapping(value = "/assets", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AssetDTO> findAllAssets(@RequestParam(required = false) String after) {
+        return reactiveReadService.findAllAssets(KeysetPage.decodeCursor(after));
+    }
+
+    @GetMapping("/assets/{id}")
+    public Mono<AssetDTO> findAssetById(@PathVariable Long id) {
+        return reactiveReadService.findAssetById(id);
+    }
+
+    @GetMapping(value = "/groups", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<GroupDTO> findAllGroups() {
+        return reactiveReadService.findAllGroups();
+    }
+
+    @GetMapping(value = "/groups/{id}/assets", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AssetDTO> findGroupAssets(@PathVariable Long id) {
+        return reactiveReadService.findGroupAssets(id);
+    }
+}
@@ -1,10 +1,30 @@
 package com.example.kontaktiotask.exception;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.web.server.ResponseStatusException;
 
 public class AssetServiceException extends ResponseStatusException {
+    private final boolean staleVersion;
+
     public AssetServiceException(HttpStatusCode status, String reason) {
+        this(status, reason, false);
+    }
+
+    private AssetServiceException(HttpStatusCode status, String reason, boolean staleVersion) {
         super(status, reason);
+        this.staleVersion = staleVersion;
+    }
+
+    /**
+     * The 409 for an update whose expected version no longer matches the row, told apart from other conflicts
+     * so only these are counted as optimistic-lock conflicts.
+     */
+    public static AssetServiceException staleVersion(Long id) {
+        return new AssetServiceException(HttpStatus.CONFLICT, String.format("Asset with id %s was modified concurrently", id), true);
+    }
+
+    public boolean isStaleVersion() {
+        return staleVersion;
     }
 }
@@ -0,0 +1,10 @@
+package com.example.kontaktiotask.exception;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+public class ChangeFeedServiceException extends ResponseStatusException {
+    public ChangeFeedServiceException(HttpStatusCode status, String reason) {
+        super(status, reason);
+    }
+}
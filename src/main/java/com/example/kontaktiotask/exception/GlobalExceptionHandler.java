@@ -1,43 +1,94 @@
 package com.example.kontaktiotask.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    static final String ERRORS_METRIC = "api.errors";
+    public static final String CONFLICTS_METRIC = "api.optimistic.lock.conflicts";
+
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(GroupServiceException.class)
     public ResponseEntity<ErrorResponse> handleGroupServiceException(GroupServiceException ex) {
-        log.error("Group service exception: ", ex);
+        logServiceException("Group service exception", ex);
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getReason(),
                 String.valueOf(ex.getStatusCode().value())
         );
-        return new ResponseEntity<>(errorResponse, ex.getStatusCode());
+        count(ex, ex.getStatusCode());
+        return new ResponseEntity<>(errorResponse, ex.getHeaders(), ex.getStatusCode());
     }
 
     @ExceptionHandler(AssetServiceException.class)
     public ResponseEntity<ErrorResponse> handleAssetException(AssetServiceException ex) {
-        log.error("Asset service exception: ", ex);
+        logServiceException("Asset service exception", ex);
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getReason(),
+                String.valueOf(ex.getStatusCode().value())
+        );
+        count(ex, ex.getStatusCode());
+        if (ex.isStaleVersion()) {
+            countConflict(ex);
+        }
+        return new ResponseEntity<>(errorResponse, ex.getStatusCode());
+    }
+
+    @ExceptionHandler(ChangeFeedServiceException.class)
+    public ResponseEntity<ErrorResponse> handleChangeFeedServiceException(ChangeFeedServiceException ex) {
+        logServiceException("Change feed service exception", ex);
         ErrorResponse errorResponse = new ErrorResponse(
                 ex.getReason(),
                 String.valueOf(ex.getStatusCode().value())
         );
+        count(ex, ex.getStatusCode());
         return new ResponseEntity<>(errorResponse, ex.getStatusCode());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        log.debug("Optimistic locking failure: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Resource was modified concurrently",
+                String.valueOf(HttpStatus.CONFLICT.value())
+        );
+        count(ex, HttpStatus.CONFLICT);
+        countConflict(ex);
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        log.debug("Argument type mismatch: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                String.format("Invalid value '%s' for parameter '%s'", ex.getValue(), ex.getName()),
+                String.valueOf(HttpStatus.BAD_REQUEST.value())
+        );
+        count(ex, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<ErrorResponse> handleCustomValidationException(ValidationException ex) {
-        log.error("Validation exception: ", ex);
+        log.debug("Validation exception: {}", ex.getMessage());
         String errorMessage = "Validation error";
 
         if (ex instanceof ConstraintViolationException constraintEx) {
@@ -46,12 +97,15 @@ public class GlobalExceptionHandler {
                 messages.append(violation.getMessageTemplate()).append(" ");
             }
             errorMessage = messages.toString().trim();
+        } else if (ex.getMessage() != null) {
+            errorMessage = ex.getMessage();
         }
 
         ErrorResponse errorResponse = new ErrorResponse(
                 errorMessage,
                 String.valueOf(HttpStatus.BAD_REQUEST.value())
         );
+        count(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -62,6 +116,36 @@ public class GlobalExceptionHandler {
                 ex.getMessage(),
                 String.valueOf(HttpStatus.INTERNAL_SERVER_ERROR.value())
         );
+        count(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * 4xx responses are the caller's problem and already counted, so they are logged at DEBUG without the
+     * stack trace; only server-side failures are worth an ERROR line.
+     */
+    private void logServiceException(String message, ResponseStatusException ex) {
+        if (ex.getStatusCode().is5xxServerError()) {
+            log.error("{}: ", message, ex);
+        } else {
+            log.debug("{}: {} {}", message, ex.getStatusCode().value(), ex.getReason());
+        }
+    }
+
+    /**
+     * Every handled error is counted by status and exception type.
+     */
+    private void count(Exception ex, HttpStatusCode status) {
+        meterRegistry.counter(ERRORS_METRIC,
+                "status", String.valueOf(status.value()),
+                "exception", ex.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * Only lost version races count as optimistic-lock conflicts, whether Hibernate's version check or our own
+     * single-statement update detected them; other 409s, such as a duplicate membership, do not.
+     */
+    private void countConflict(Exception ex) {
+        meterRegistry.counter(CONFLICTS_METRIC, "exception", ex.getClass().getSimpleName()).increment();
+    }
 }
@@ -1,10 +1,23 @@
 package com.example.kontaktiotask.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.web.server.ResponseStatusException;
 
 public class GroupServiceException extends ResponseStatusException {
+    private final HttpHeaders headers;
+
     public GroupServiceException(HttpStatusCode status, String reason) {
+        this(status, reason, HttpHeaders.EMPTY);
+    }
+
+    public GroupServiceException(HttpStatusCode status, String reason, HttpHeaders headers) {
         super(status, reason);
+        this.headers = headers;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
     }
 }
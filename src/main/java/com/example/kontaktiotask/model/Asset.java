@@ -3,11 +3,16 @@ package com.example.kontaktiotask.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "asset")
 @Getter
 @Setter
 @Builder
@@ -16,8 +21,17 @@ import java.util.Set;
 @EqualsAndHashCode(exclude = "groups")
 public class Asset {
 
+    public static final String GROUPS_ROLE = Asset.class.getName() + ".groups";
+    public static final String ID_SEQUENCE = "asset_id_seq";
+    /**
+     * Ids are reserved from the sequence in blocks of this size (pooled-lo), so Hibernate can batch inserts
+     * and the JDBC bulk insert can hand out ids without a round trip per row.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotEmpty(message = "Asset name cannot be empty")
@@ -31,6 +45,8 @@ public class Asset {
     @Version
     private int version;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "asset-groups")
+    @BatchSize(size = 50)
     @ManyToMany(mappedBy = "assets", fetch = FetchType.LAZY)
     private Set<Group> groups = new HashSet<>();
 
@@ -3,11 +3,16 @@ package com.example.kontaktiotask.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "group")
 @Getter
 @Setter
 @Builder
@@ -17,17 +22,32 @@ import java.util.Set;
 @EqualsAndHashCode(exclude = "assets")
 public class Group {
 
+    public static final String ASSETS_ROLE = Group.class.getName() + ".assets";
+    public static final String ID_SEQUENCE = "groups_id_seq";
+    /**
+     * Must match the sequence's {@code INCREMENT BY}, since ids are reserved from it in blocks of this size.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotEmpty(message = "Group name cannot be empty")
     private String name;
     private String description;
 
+    // the group this one is nested in; GroupRepositoryCustom keeps group_closure in step with it
+    @Column(name = "parent_id")
+    private Long parentId;
+
     @Version
     private int version;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "group-assets")
+    // initialising one lazy collection loads up to 50 of its siblings in the session in the same query
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "asset_group",
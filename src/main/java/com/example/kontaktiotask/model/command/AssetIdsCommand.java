@@ -0,0 +1,6 @@
+package com.example.kontaktiotask.model.command;
+
+import java.util.List;
+
+public record AssetIdsCommand(List<Long> assetIds) {
+}
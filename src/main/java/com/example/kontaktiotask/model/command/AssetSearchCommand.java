@@ -0,0 +1,24 @@
+package com.example.kontaktiotask.model.command;
+
+/**
+ * Optional filters for the asset listing; blank values count as absent. {@code query} is matched as
+ * full-text words against the description.
+ */
+public record AssetSearchCommand(String type, String namePrefix, String query) {
+
+    public static final AssetSearchCommand NONE = new AssetSearchCommand(null, null, null);
+
+    public AssetSearchCommand {
+        type = blankToNull(type);
+        namePrefix = blankToNull(namePrefix);
+        query = blankToNull(query);
+    }
+
+    public boolean isEmpty() {
+        return type == null && namePrefix == null && query == null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
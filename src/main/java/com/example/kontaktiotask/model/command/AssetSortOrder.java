@@ -0,0 +1,13 @@
+package com.example.kontaktiotask.model.command;
+
+/**
+ * Order of a paginated group-assets listing. Id orders are answered straight from the
+ * {@code (group_id, asset_id)} primary key of {@code asset_group}; name orders have to sort the group's
+ * members, so they cost more on very large groups. Ties on name are broken by id.
+ */
+public enum AssetSortOrder {
+    ID_ASC,
+    ID_DESC,
+    NAME_ASC,
+    NAME_DESC
+}
@@ -0,0 +1,19 @@
+package com.example.kontaktiotask.model.command;
+
+import java.util.List;
+
+public record BatchAssetCommand(List<CreateAssetCommand> create, List<Update> update, List<Long> delete) {
+
+    public BatchAssetCommand {
+        create = create == null ? List.of() : create;
+        update = update == null ? List.of() : update;
+        delete = delete == null ? List.of() : delete;
+    }
+
+    public int size() {
+        return create.size() + update.size() + delete.size();
+    }
+
+    public record Update(Long id, String name, String type, String description, int version) {
+    }
+}
@@ -1,4 +1,7 @@
 package com.example.kontaktiotask.model.command;
 
-public record CreateGroupCommand(String name, String description) {
+/**
+ * {@code parentId} nests the new group under an existing one; {@code null} makes it a top-level group.
+ */
+public record CreateGroupCommand(String name, String description, Long parentId) {
 }
@@ -0,0 +1,7 @@
+package com.example.kontaktiotask.model.command;
+
+/**
+ * Nests a group under {@code parentId}, or makes it a top-level group when {@code parentId} is {@code null}.
+ */
+public record MoveGroupCommand(Long parentId) {
+}
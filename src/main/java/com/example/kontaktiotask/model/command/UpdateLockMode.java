@@ -0,0 +1,16 @@
+package com.example.kontaktiotask.model.command;
+
+/**
+ * How a single-asset update guards against concurrent writers.
+ */
+public enum UpdateLockMode {
+    /**
+     * One conditional {@code UPDATE ... WHERE version = ?}; a stale version fails with 409 and nothing is locked.
+     */
+    OPTIMISTIC,
+    /**
+     * Locks the row with {@code SELECT ... FOR UPDATE} and applies the change unconditionally, so
+     * concurrent writers queue up instead of failing. The version in the command is ignored.
+     */
+    PESSIMISTIC
+}
@@ -0,0 +1,11 @@
+package com.example.kontaktiotask.model.dto;
+
+/**
+ * Read projection for keyset-paginated listings: the fields of {@link AssetDTO} plus the id the next
+ * cursor is built from and the version the page's ETag is built from.
+ */
+public record AssetRow(Long id, String name, String type, String description, int version) {
+    public AssetDTO toDTO() {
+        return new AssetDTO(name, type, description);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.kontaktiotask.model.dto;
+
+import java.util.List;
+
+public record BatchAssetResultDTO(List<ItemResult> create, List<ItemResult> update, List<ItemResult> delete) {
+
+    /**
+     * Outcome of a single batch item; {@code index} is its position in the request array and
+     * {@code status} uses the HTTP code the equivalent single-item endpoint would have returned.
+     */
+    public record ItemResult(int index, Long id, String status, String message) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.kontaktiotask.model.dto;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change feed. {@code position} orders the feed and is unique; {@code assetId} and
+ * {@code groupId} are set as far as they apply to {@code type}.
+ */
+public record ChangeEventDTO(long position, ChangeType type, Long assetId, Long groupId, Instant occurredAt) {
+}
@@ -0,0 +1,10 @@
+package com.example.kontaktiotask.model.dto;
+
+import java.util.List;
+
+/**
+ * A slice of the change feed. {@code next} is always set: pass it as {@code after} to continue where
+ * this slice ended, also when it was empty.
+ */
+public record ChangeFeedDTO(List<ChangeEventDTO> events, String next) {
+}
@@ -0,0 +1,15 @@
+package com.example.kontaktiotask.model.dto;
+
+/**
+ * Kinds of change published on the change feed. Deleting an asset also drops it from its groups; that
+ * is reported as {@link #ASSET_DELETED} only, not as one {@link #GROUP_ASSET_REMOVED} per group.
+ */
+public enum ChangeType {
+    ASSET_CREATED,
+    ASSET_UPDATED,
+    ASSET_DELETED,
+    GROUP_CREATED,
+    GROUP_MOVED,
+    GROUP_ASSET_ADDED,
+    GROUP_ASSET_REMOVED
+}
@@ -0,0 +1,4 @@
+package com.example.kontaktiotask.model.dto;
+
+public record DeleteResultDTO(int requested, int deleted) {
+}
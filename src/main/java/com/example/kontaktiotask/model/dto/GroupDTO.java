@@ -2,8 +2,8 @@ package com.example.kontaktiotask.model.dto;
 
 import com.example.kontaktiotask.model.Group;
 
-public record GroupDTO(String name, String description) {
+public record GroupDTO(Long id, String name, String description, Long parentId) {
     public static GroupDTO fromEntity(Group group) {
-        return new GroupDTO(group.getName(), group.getDescription());
+        return new GroupDTO(group.getId(), group.getName(), group.getDescription(), group.getParentId());
     }
 }
@@ -0,0 +1,89 @@
+package com.example.kontaktiotask.model.dto;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated listing. {@code next} is an opaque cursor pointing past the last
+ * item, or {@code null} when there is nothing more to read.
+ */
+public record KeysetPage<T>(List<T> items, String next) {
+
+    /**
+     * Builds a page from a query that fetched {@code limit + 1} rows ordered by id; the extra row only
+     * tells us whether another page exists and is not returned.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, Long> idExtractor) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, encodeCursor(idExtractor.apply(items.get(limit - 1))));
+    }
+
+    /**
+     * Like {@link #of(List, int, Function)}, for listings ordered by a string key with the id as
+     * tie-breaker; the cursor carries both, see {@link #decodePosition(String)}.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, Long> idExtractor, Function<T, String> keyExtractor) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new KeysetPage<>(items, encodeCursor(idExtractor.apply(last), keyExtractor.apply(last)));
+    }
+
+    public static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+    }
+
+    public static String encodeCursor(long id, String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES + keyBytes.length).putLong(id).put(keyBytes).array());
+    }
+
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length < Long.BYTES) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return new Position(ByteBuffer.wrap(bytes).getLong(),
+                    new String(bytes, Long.BYTES, bytes.length - Long.BYTES, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Where a listing ordered by a string key left off: the key and id of the last row returned.
+     */
+    public record Position(long id, String key) {
+    }
+}
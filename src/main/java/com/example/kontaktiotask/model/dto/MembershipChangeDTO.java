@@ -0,0 +1,4 @@
+package com.example.kontaktiotask.model.dto;
+
+public record MembershipChangeDTO(int requested, int affected) {
+}
@@ -0,0 +1,10 @@
+package com.example.kontaktiotask.model.dto;
+
+import java.util.List;
+
+/**
+ * One page of a membership set query: {@code total} counts every matching asset, {@code assetIds} holds
+ * the page in ascending id order and {@code next}, when set, is the {@code after} cursor of the next page.
+ */
+public record MembershipQueryDTO(long total, List<Long> assetIds, String next) {
+}
@@ -0,0 +1,17 @@
+package com.example.kontaktiotask.repository;
+
+/**
+ * Keys of the transaction-scoped PostgreSQL advisory locks the repositories take. Any values work as long
+ * as they differ from each other and from any other lock taken in the same database, which is why they are
+ * kept in one place.
+ */
+final class AdvisoryLocks {
+
+    /** Held while pending change events are given feed positions, so only one relay numbers at a time. */
+    static final long CHANGE_FEED_RELAY = 0x6b6f6e74616b74L;
+    /** Serialises changes to the group hierarchy and its closure table. */
+    static final long GROUP_HIERARCHY = 0x67726f757073L;
+
+    private AdvisoryLocks() {
+    }
+}
@@ -1,17 +1,34 @@
 package com.example.kontaktiotask.repository;
 
 import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.dto.AssetRow;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface AssetRepository extends JpaRepository<Asset, Long> {
+public interface AssetRepository extends JpaRepository<Asset, Long>, AssetRepositoryCustom {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM Asset a WHERE a.id = :id")
     Optional<Asset> findByIdWithLock(Long id);
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT a FROM Asset a LEFT JOIN FETCH a.groups WHERE a.id = :id")
     Optional<Asset> findByIdWithGroups(Long id);
+    @Query("SELECT new com.example.kontaktiotask.model.dto.AssetRow(a.id, a.name, a.type, a.description, a.version) "
+            + "FROM Asset a WHERE a.id > :afterId ORDER BY a.id")
+    List<AssetRow> findRowsAfter(Long afterId, Limit limit);
+    @Query("SELECT new com.example.kontaktiotask.model.dto.AssetRow(a.id, a.name, a.type, a.description, a.version) "
+            + "FROM Asset a WHERE a.id = :id")
+    Optional<AssetRow> findRowById(Long id);
+    @Query("SELECT a.id FROM Asset a WHERE a.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
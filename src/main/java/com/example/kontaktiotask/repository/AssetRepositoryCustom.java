@@ -0,0 +1,51 @@
+package com.example.kontaktiotask.repository;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.command.AssetSearchCommand;
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.AssetRow;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface AssetRepositoryCustom {
+    /**
+     * Reads every asset through a server-side cursor and hands rows to {@code consumer} one by one,
+     * without putting them in the persistence context. Must run inside a transaction, otherwise the
+     * PostgreSQL driver ignores the fetch size and buffers the whole result.
+     */
+    void streamAll(Consumer<AssetDTO> consumer);
+
+    /**
+     * Returns up to {@code limit} assets with an id above {@code afterId} that match every filter set in
+     * {@code search}, ordered by id. Each filter is phrased so PostgreSQL can answer it from one of the
+     * indexes created by the {@code V3__create_asset_search_indexes} migration.
+     */
+    List<AssetRow> search(AssetSearchCommand search, long afterId, int limit);
+
+    /**
+     * Inserts the assets with JDBC batching and returns the generated ids in input order.
+     */
+    List<Long> insertAll(List<Asset> assets);
+
+    /**
+     * Applies optimistic updates with JDBC batching; each asset's {@code version} is the expected current
+     * version. Returns the affected row count per asset, so 0 means missing or stale.
+     */
+    int[] updateAll(List<Asset> assets);
+
+    /**
+     * Applies one optimistic update in a single {@code UPDATE ... RETURNING} statement; the asset's
+     * {@code version} is the expected current version. Returns the row as written, or empty when the asset
+     * is missing or stale.
+     */
+    Optional<Asset> updateIfVersionMatches(Asset asset);
+
+    /**
+     * Deletes the assets together with their group memberships and returns the ids that actually existed.
+     */
+    Set<Long> deleteAllByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,166 @@
+package com.example.kontaktiotask.repository;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetSearchCommand;
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class AssetRepositoryCustomImpl implements AssetRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 500;
+
+    static final RowMapper<AssetRow> ASSET_ROW_MAPPER = (rs, rowNum) -> new AssetRow(
+            rs.getLong("id"), rs.getString("name"), rs.getString("type"), rs.getString("description"), rs.getInt("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    @Override
+    public void streamAll(Consumer<AssetDTO> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT name, type, description FROM asset ORDER BY id");
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(new AssetDTO(rs.getString("name"), rs.getString("type"), rs.getString("description")));
+        });
+    }
+
+    @Override
+    public List<AssetRow> search(AssetSearchCommand search, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, type, description, version FROM asset WHERE id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (search.type() != null) {
+            sql.append(" AND type = ?");
+            args.add(search.type());
+        }
+        if (search.namePrefix() != null) {
+            sql.append(" AND name LIKE ?");
+            args.add(escapeLike(search.namePrefix()) + "%");
+        }
+        if (search.query() != null) {
+            sql.append(" AND to_tsvector('english', coalesce(description, '')) @@ plainto_tsquery('english', ?)");
+            args.add(search.query());
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ASSET_ROW_MAPPER, args.toArray());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public List<Long> insertAll(List<Asset> assets) {
+        if (assets.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = allocateIds(assets.size());
+        jdbcTemplate.batchUpdate("INSERT INTO asset (id, name, type, description, version) VALUES (?, ?, ?, ?, 0)",
+                IntStream.range(0, assets.size()).boxed().toList(), BATCH_SIZE, (statement, i) -> {
+                    Asset asset = assets.get(i);
+                    statement.setLong(1, ids.get(i));
+                    statement.setString(2, asset.getName());
+                    statement.setString(3, asset.getType());
+                    statement.setString(4, asset.getDescription());
+                });
+        return ids;
+    }
+
+    @Override
+    public int[] updateAll(List<Asset> assets) {
+        if (assets.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE asset SET name = ?, type = ?, description = ?, version = version + 1 WHERE id = ? AND version = ?",
+                assets, BATCH_SIZE, (statement, asset) -> {
+                    statement.setString(1, asset.getName());
+                    statement.setString(2, asset.getType());
+                    statement.setString(3, asset.getDescription());
+                    statement.setLong(4, asset.getId());
+                    statement.setInt(5, asset.getVersion());
+                });
+        cacheEvictor.evictAfterCommit(cache -> {
+            assets.forEach(asset -> cache.evictEntityData(Asset.class, asset.getId()));
+            cache.evictDefaultQueryRegion();
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    @Override
+    public Optional<Asset> updateIfVersionMatches(Asset asset) {
+        List<Asset> updated = jdbcTemplate.query("""
+                        UPDATE asset SET name = ?, type = ?, description = ?, version = version + 1
+                        WHERE id = ? AND version = ?
+                        RETURNING id, name, type, description, version""",
+                (rs, rowNum) -> Asset.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .type(rs.getString("type"))
+                        .description(rs.getString("description"))
+                        .version(rs.getInt("version"))
+                        .build(),
+                asset.getName(), asset.getType(), asset.getDescription(), asset.getId(), asset.getVersion());
+        if (!updated.isEmpty()) {
+            cacheEvictor.evictAfterCommit(cache -> {
+                cache.evictEntityData(Asset.class, asset.getId());
+                cache.evictDefaultQueryRegion();
+            });
+        }
+        return updated.stream().findFirst();
+    }
+
+    /**
+     * Reserves ids the same way Hibernate's pooled-lo optimizer does: each {@code nextval} owns the block
+     * {@code [value, value + ID_ALLOCATION_SIZE)}, so ids handed out here never collide with the entity's.
+     */
+    private List<Long> allocateIds(int count) {
+        int blocks = (count + Asset.ID_ALLOCATION_SIZE - 1) / Asset.ID_ALLOCATION_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(
+                "SELECT nextval('" + Asset.ID_SEQUENCE + "') FROM generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long blockStart : blockStarts) {
+            for (int i = 0; i < Asset.ID_ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(blockStart + i);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public Set<Long> deleteAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        PreparedStatementSetter idArray = statement ->
+                statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids.toArray()));
+        jdbcTemplate.update("DELETE FROM asset_group WHERE asset_id = ANY(?)", idArray);
+        Set<Long> deletedIds = new HashSet<>(jdbcTemplate.query("DELETE FROM asset WHERE id = ANY(?) RETURNING id", idArray,
+                (rs, rowNum) -> rs.getLong(1)));
+        cacheEvictor.evictAfterCommit(cache -> {
+            deletedIds.forEach(id -> {
+                cache.evictEntityData(Asset.class, id);
+                cache.evictCollectionData(Asset.GROUPS_ROLE, id);
+            });
+            cache.evictCollectionData(Group.ASSETS_ROLE);
+            cache.evictDefaultQueryRegion();
+        });
+        return deletedIds;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.kontaktiotask.repository;
+
+import com.example.kontaktiotask.model.dto.ChangeEventDTO;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code change_event} outbox. Rows are appended inside the transaction that makes the change, so
+ * the feed never reports a change that rolled back nor misses one that committed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChangeEventRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(ChangeType type, Long assetId, Long groupId) {
+        jdbcTemplate.update("INSERT INTO change_event (type, asset_id, group_id) VALUES (?, ?, ?)",
+                type.name(), assetId, groupId);
+    }
+
+    /**
+     * Appends one {@code type} event per asset id in a single statement.
+     */
+    public void appendAll(ChangeType type, Collection<Long> assetIds) {
+        if (assetIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO change_event (type, asset_id) SELECT ?, unnest(?)", statement -> {
+            statement.setString(1, type.name());
+            statement.setArray(2, statement.getConnection().createArrayOf("bigint", assetIds.toArray()));
+        });
+    }
+
+    /**
+     * Gives up to {@code limit} pending events the next feed positions, oldest first, and returns how many
+     * it numbered. Only one relay at a time may number events; when another instance holds the lock this
+     * returns 0 straight away. Must run in a read-write transaction, which the lock is scoped to.
+     */
+    public int publishPending(int limit) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, AdvisoryLocks.CHANGE_FEED_RELAY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+        // with the lock held nobody else assigns positions, so the current maximum is a safe base
+        return jdbcTemplate.update("""
+                WITH pending AS (
+                    SELECT id, row_number() OVER (ORDER BY id) AS offset_in_batch
+                    FROM change_event WHERE position IS NULL ORDER BY id LIMIT ?)
+                UPDATE change_event e
+                SET position = (SELECT coalesce(max(position), 0) FROM change_event) + pending.offset_in_batch
+                FROM pending WHERE e.id = pending.id""", limit);
+    }
+
+    public long findLatestPosition() {
+        Long latest = jdbcTemplate.queryForObject("SELECT max(position) FROM change_event", Long.class);
+        return latest == null ? 0L : latest;
+    }
+
+    public List<ChangeEventDTO> findAfter(long position, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT position, type, asset_id, group_id, occurred_at FROM change_event
+                        WHERE position > ? ORDER BY position LIMIT ?""",
+                (rs, rowNum) -> new ChangeEventDTO(
+                        rs.getLong("position"),
+                        ChangeType.valueOf(rs.getString("type")),
+                        rs.getObject("asset_id", Long.class),
+                        rs.getObject("group_id", Long.class),
+                        rs.getTimestamp("occurred_at").toInstant()),
+                position, limit);
+    }
+}
@@ -1,12 +1,54 @@
 package com.example.kontaktiotask.repository;
 
 import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface GroupRepository extends JpaRepository<Group, Long> {
+public interface GroupRepository extends JpaRepository<Group, Long>, GroupRepositoryCustom {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT g FROM Group g LEFT JOIN FETCH g.assets WHERE g.id = :id")
     Optional<Group> findByIdWithAssets(Long id);
+    @Query("SELECT new com.example.kontaktiotask.model.dto.GroupDTO(g.id, g.name, g.description, g.parentId) FROM Group g ORDER BY g.id")
+    List<GroupDTO> findAllDtos();
+    /**
+     * Summarises the group listing in one row of {@code groups}-only aggregates; it changes whenever a group is
+     * created, deleted or has its version bumped.
+     */
+    @Query(value = "SELECT count(*) || '-' || coalesce(max(id), 0) || '-' || coalesce(sum(version), 0) FROM groups",
+            nativeQuery = true)
+    String findListVersion();
+    /**
+     * Counts the group's members from {@code asset_group} alone; empty when the group does not exist.
+     */
+    @Query(value = "SELECT (SELECT count(*) FROM asset_group ag WHERE ag.group_id = g.id) FROM groups g WHERE g.id = :groupId",
+            nativeQuery = true)
+    Optional<Long> countAssets(Long groupId);
+    /**
+     * Counts the distinct members of the group and of every group nested under it; empty when the group does
+     * not exist.
+     */
+    @Query(value = """
+            SELECT (SELECT count(DISTINCT ag.asset_id) FROM asset_group ag
+                    WHERE ag.group_id IN (SELECT g.id UNION ALL SELECT descendant_id FROM group_closure WHERE ancestor_id = g.id))
+            FROM groups g WHERE g.id = :groupId""",
+            nativeQuery = true)
+    Optional<Long> countSubtreeAssets(Long groupId);
+    @Query(value = "SELECT DISTINCT ancestor_id FROM group_closure WHERE descendant_id IN :groupIds", nativeQuery = true)
+    Set<Long> findAncestorIds(Collection<Long> groupIds);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM asset_group WHERE group_id = :groupId AND asset_id = :assetId)",
+            nativeQuery = true)
+    boolean containsAsset(Long groupId, Long assetId);
+    @Modifying
+    @Query("UPDATE Group g SET g.version = g.version + 1 WHERE g.id = :id")
+    int incrementVersion(Long id);
 }
@@ -0,0 +1,64 @@
+package com.example.kontaktiotask.repository;
+
+import com.example.kontaktiotask.model.command.AssetSortOrder;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public interface GroupRepositoryCustom {
+    /**
+     * Returns up to {@code limit} members of the group in {@code sort} order, starting after {@code after}
+     * ({@code null} for the first page). Reads {@code asset_group} joined to {@code asset} without loading the
+     * group or its collection; a group that does not exist simply has no members.
+     */
+    List<AssetRow> findAssetPage(Long groupId, AssetSortOrder sort, KeysetPage.Position after, int limit);
+
+    /**
+     * Like {@link #findAssetPage}, over the members of the group and of every group nested under it at any
+     * depth, each asset once. The subtree comes from {@code group_closure} in the same statement.
+     */
+    List<AssetRow> findSubtreeAssetPage(Long groupId, AssetSortOrder sort, KeysetPage.Position after, int limit);
+
+    /**
+     * Inserts the join rows directly into {@code asset_group}, skipping asset ids that do not exist or are
+     * already members, and records a {@code GROUP_ASSET_ADDED} change event per row inserted. Returns the
+     * number of rows inserted.
+     */
+    int addAssets(Long groupId, Collection<Long> assetIds);
+
+    /**
+     * Deletes the join rows directly from {@code asset_group} and records a {@code GROUP_ASSET_REMOVED}
+     * change event per row deleted. Returns the number of rows deleted.
+     */
+    int removeAssets(Long groupId, Collection<Long> assetIds);
+
+    /**
+     * Streams every group with each of its members, ordered by group id; a group without members is passed
+     * once with a {@code null} asset id. Rows are fetched in chunks, so only inside a transaction does this
+     * avoid holding the whole join table in memory at once.
+     */
+    void forEachMembership(BiConsumer<Long, Long> consumer);
+
+    /**
+     * Takes a transaction-scoped lock that serialises changes to the hierarchy, so two concurrent moves cannot
+     * together form a cycle and a group created under a moving parent gets the parent's new ancestors.
+     */
+    void lockHierarchy();
+
+    /**
+     * Records a newly created {@code groupId} in {@code group_closure} as nested under {@code parentId}.
+     */
+    void insertAncestors(Long groupId, Long parentId);
+
+    boolean isAncestor(Long ancestorId, Long groupId);
+
+    /**
+     * Re-parents {@code groupId}, with its whole subtree, under {@code parentId} ({@code null} for top level),
+     * rewriting only the {@code group_closure} rows that link the subtree to the ancestors it leaves and joins.
+     * Bumps the moved group's version. The caller must hold {@link #lockHierarchy()} and have ruled out a cycle.
+     */
+    void moveSubtree(Long groupId, Long parentId);
+}
@@ -0,0 +1,194 @@
+package com.example.kontaktiotask.repository;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetSortOrder;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+@RequiredArgsConstructor
+public class GroupRepositoryCustomImpl implements GroupRepositoryCustom {
+
+    private static final int MEMBERSHIP_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    @Override
+    public List<AssetRow> findAssetPage(Long groupId, AssetSortOrder sort, KeysetPage.Position after, int limit) {
+        // id orders seek on ag.asset_id so the (group_id, asset_id) primary key returns rows already sorted;
+        // name orders sort the group's members, keeping only the top limit rows
+        return findPage("""
+                SELECT a.id, a.name, a.type, a.description, a.version FROM asset_group ag
+                JOIN asset a ON a.id = ag.asset_id
+                WHERE ag.group_id = ?""", "ag.asset_id", List.of(groupId), sort, after, limit);
+    }
+
+    @Override
+    public List<AssetRow> findSubtreeAssetPage(Long groupId, AssetSortOrder sort, KeysetPage.Position after, int limit) {
+        if (sort == AssetSortOrder.NAME_ASC || sort == AssetSortOrder.NAME_DESC) {
+            // walks asset_name_id_idx and keeps the assets in the subtree; for a small subtree the planner sorts
+            // its members instead. A semi-join, so an asset in several groups of the subtree is listed once.
+            return findPage("""
+                    SELECT a.id, a.name, a.type, a.description, a.version FROM asset a
+                    WHERE EXISTS (
+                        SELECT 1 FROM asset_group ag
+                        WHERE ag.asset_id = a.id
+                        AND ag.group_id IN (SELECT ?::bigint UNION ALL SELECT descendant_id FROM group_closure WHERE ancestor_id = ?))""",
+                    "a.id", List.of(groupId, groupId), sort, after, limit);
+        }
+        // takes the next limit members of every group in the subtree from its own primary key range, then merges
+        // them; the cost grows with the number of groups, not with their size or how deep the page is
+        boolean ascending = sort == AssetSortOrder.ID_ASC;
+        List<Object> args = new ArrayList<>(List.of(groupId, groupId));
+        String keyset = "";
+        if (after != null) {
+            keyset = ascending ? " AND ag.asset_id > ?" : " AND ag.asset_id < ?";
+            args.add(after.id());
+        }
+        String direction = ascending ? "" : " DESC";
+        args.add(limit);
+        args.add(limit);
+        return jdbcTemplate.query("""
+                        SELECT a.id, a.name, a.type, a.description, a.version FROM asset a
+                        WHERE a.id IN (
+                            SELECT DISTINCT m.asset_id
+                            FROM (SELECT ?::bigint AS group_id UNION ALL SELECT descendant_id FROM group_closure WHERE ancestor_id = ?) s
+                            CROSS JOIN LATERAL (
+                                SELECT ag.asset_id FROM asset_group ag WHERE ag.group_id = s.group_id%1$s
+                                ORDER BY ag.asset_id%2$s LIMIT ?) m
+                            ORDER BY m.asset_id%2$s LIMIT ?)
+                        ORDER BY a.id%2$s""".formatted(keyset, direction),
+                AssetRepositoryCustomImpl.ASSET_ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public int addAssets(Long groupId, Collection<Long> assetIds) {
+        evictMemberships(groupId, assetIds);
+        // only the database knows which ids were actually inserted, so it writes their outbox rows too
+        return jdbcTemplate.update("""
+                WITH added AS (
+                    INSERT INTO asset_group (group_id, asset_id)
+                    SELECT ?, a.id FROM asset a WHERE a.id = ANY(?)
+                    ON CONFLICT DO NOTHING
+                    RETURNING group_id, asset_id)
+                INSERT INTO change_event (type, group_id, asset_id)
+                SELECT 'GROUP_ASSET_ADDED', group_id, asset_id FROM added""", statement -> {
+            statement.setLong(1, groupId);
+            statement.setArray(2, statement.getConnection().createArrayOf("bigint", assetIds.toArray()));
+        });
+    }
+
+    @Override
+    public int removeAssets(Long groupId, Collection<Long> assetIds) {
+        evictMemberships(groupId, assetIds);
+        return jdbcTemplate.update("""
+                WITH removed AS (
+                    DELETE FROM asset_group WHERE group_id = ? AND asset_id = ANY(?)
+                    RETURNING group_id, asset_id)
+                INSERT INTO change_event (type, group_id, asset_id)
+                SELECT 'GROUP_ASSET_REMOVED', group_id, asset_id FROM removed""", statement -> {
+            statement.setLong(1, groupId);
+            statement.setArray(2, statement.getConnection().createArrayOf("bigint", assetIds.toArray()));
+        });
+    }
+
+    @Override
+    public void forEachMembership(BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT g.id, ag.asset_id FROM groups g
+                    LEFT JOIN asset_group ag ON ag.group_id = g.id
+                    ORDER BY g.id""");
+            statement.setFetchSize(MEMBERSHIP_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getLong(1), resultSet.getObject(2, Long.class)));
+    }
+
+    @Override
+    public void lockHierarchy() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", resultSet -> null, AdvisoryLocks.GROUP_HIERARCHY);
+    }
+
+    @Override
+    public void insertAncestors(Long groupId, Long parentId) {
+        jdbcTemplate.update("""
+                INSERT INTO group_closure (ancestor_id, descendant_id, depth)
+                SELECT ancestor_id, ?, depth + 1 FROM group_closure WHERE descendant_id = ?
+                UNION ALL SELECT ?, ?, 1""", groupId, parentId, parentId, groupId);
+    }
+
+    @Override
+    public boolean isAncestor(Long ancestorId, Long groupId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM group_closure WHERE ancestor_id = ? AND descendant_id = ?)",
+                Boolean.class, ancestorId, groupId));
+    }
+
+    @Override
+    public void moveSubtree(Long groupId, Long parentId) {
+        // unlink the group and everything under it from the group's current ancestors...
+        jdbcTemplate.update("""
+                DELETE FROM group_closure
+                WHERE ancestor_id IN (SELECT ancestor_id FROM group_closure WHERE descendant_id = ?)
+                AND descendant_id IN (SELECT ?::bigint UNION ALL SELECT descendant_id FROM group_closure WHERE ancestor_id = ?)""",
+                groupId, groupId, groupId);
+        if (parentId != null) {
+            // ...and link all of it to the new parent and the parent's ancestors
+            jdbcTemplate.update("""
+                    INSERT INTO group_closure (ancestor_id, descendant_id, depth)
+                    SELECT above.ancestor_id, below.descendant_id, above.depth + below.depth + 1
+                    FROM (SELECT ancestor_id, depth FROM group_closure WHERE descendant_id = ?
+                          UNION ALL SELECT ?::bigint, 0) above
+                    CROSS JOIN (SELECT descendant_id, depth FROM group_closure WHERE ancestor_id = ?
+                                UNION ALL SELECT ?::bigint, 0) below""",
+                    parentId, parentId, groupId, groupId);
+        }
+        jdbcTemplate.update("UPDATE groups SET parent_id = ?, version = version + 1 WHERE id = ?", parentId, groupId);
+        cacheEvictor.evictAfterCommit(cache -> cache.evictEntityData(Group.class, groupId));
+    }
+
+    private List<AssetRow> findPage(String select, String idColumn, List<Object> selectArgs,
+                                    AssetSortOrder sort, KeysetPage.Position after, int limit) {
+        List<Object> args = new ArrayList<>(selectArgs);
+        String keyset = "";
+        if (after != null) {
+            keyset = switch (sort) {
+                case ID_ASC -> " AND " + idColumn + " > ?";
+                case ID_DESC -> " AND " + idColumn + " < ?";
+                case NAME_ASC -> " AND (a.name, a.id) > (?, ?)";
+                case NAME_DESC -> " AND (a.name, a.id) < (?, ?)";
+            };
+            if (sort == AssetSortOrder.NAME_ASC || sort == AssetSortOrder.NAME_DESC) {
+                args.add(after.key());
+            }
+            args.add(after.id());
+        }
+        String orderBy = switch (sort) {
+            case ID_ASC -> idColumn;
+            case ID_DESC -> idColumn + " DESC";
+            case NAME_ASC -> "a.name, a.id";
+            case NAME_DESC -> "a.name DESC, a.id DESC";
+        };
+        args.add(limit);
+        return jdbcTemplate.query(select + keyset + " ORDER BY " + orderBy + " LIMIT ?",
+                AssetRepositoryCustomImpl.ASSET_ROW_MAPPER, args.toArray());
+    }
+
+    private void evictMemberships(Long groupId, Collection<Long> assetIds) {
+        cacheEvictor.evictAfterCommit(cache -> {
+            cache.evictCollectionData(Group.ASSETS_ROLE, groupId);
+            assetIds.forEach(assetId -> cache.evictCollectionData(Asset.GROUPS_ROLE, assetId));
+            cache.evictDefaultQueryRegion();
+        });
+    }
+}
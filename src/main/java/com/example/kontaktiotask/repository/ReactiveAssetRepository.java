@@ -0,0 +1,57 @@
+package com.example.kontaktiotask.repository;
+
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads over the tables mapped by the JPA entities. Rows are pulled from the driver only as
+ * fast as the subscriber requests them, so a slow client holds back the cursor instead of buffering the
+ * whole result.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveAssetRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<AssetDTO> findAllAfter(long afterId) {
+        return databaseClient.sql("SELECT name, type, description FROM asset WHERE id > :afterId ORDER BY id")
+                .bind("afterId", afterId)
+                .map(ReactiveAssetRepository::toAssetDTO)
+                .all();
+    }
+
+    public Mono<AssetDTO> findById(long id) {
+        return databaseClient.sql("SELECT name, type, description FROM asset WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveAssetRepository::toAssetDTO)
+                .one();
+    }
+
+    public Flux<GroupDTO> findAllGroups() {
+        return databaseClient.sql("SELECT id, name, description, parent_id FROM groups ORDER BY id")
+                .map(row -> new GroupDTO(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("description", String.class), row.get("parent_id", Long.class)))
+                .all();
+    }
+
+    public Flux<AssetDTO> findGroupAssets(long groupId) {
+        return databaseClient.sql("""
+                        SELECT a.name, a.type, a.description FROM asset a
+                        JOIN asset_group ag ON ag.asset_id = a.id
+                        WHERE ag.group_id = :groupId ORDER BY a.id""")
+                .bind("groupId", groupId)
+                .map(ReactiveAssetRepository::toAssetDTO)
+                .all();
+    }
+
+    private static AssetDTO toAssetDTO(Readable row) {
+        return new AssetDTO(row.get("name", String.class), row.get("type", String.class), row.get("description", String.class));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.kontaktiotask.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Keeps the optional Hibernate second-level cache honest for writes that go through plain JDBC, which
+ * Hibernate cannot see. Eviction runs after commit so a concurrent reader cannot cache the old rows
+ * again in between.
+ */
+@Component
+class SecondLevelCacheEvictor {
+
+    private final SessionFactory sessionFactory;
+
+    SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    void evictAfterCommit(Consumer<Cache> eviction) {
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.accept(sessionFactory.getCache());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.accept(sessionFactory.getCache());
+            }
+        });
+    }
+}
@@ -1,20 +1,43 @@
 package com.example.kontaktiotask.service;
 
+import com.example.kontaktiotask.config.CacheConfig;
 import com.example.kontaktiotask.exception.AssetServiceException;
+import com.example.kontaktiotask.exception.GlobalExceptionHandler;
 import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSearchCommand;
+import com.example.kontaktiotask.model.command.BatchAssetCommand;
 import com.example.kontaktiotask.model.command.CreateAssetCommand;
 import com.example.kontaktiotask.model.command.UpdateAssetCommand;
+import com.example.kontaktiotask.model.command.UpdateLockMode;
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.BatchAssetResultDTO;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.DeleteResultDTO;
+import com.example.kontaktiotask.model.dto.BatchAssetResultDTO.ItemResult;
+import com.example.kontaktiotask.model.dto.KeysetPage;
 import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.ChangeEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,75 +45,278 @@ import java.util.List;
 @Validated
 public class AssetService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 100_000;
+
     private final AssetRepository assetRepository;
+    private final Validator validator;
+    private final ChangeEventRepository changeEventRepository;
+    private final MeterRegistry meterRegistry;
 
     @Transactional(readOnly = true)
-    public List<Asset> findAll() {
-        log.info("Fetching all assets");
-        return assetRepository.findAll();
+    public KeysetPage<AssetRow> findPage(@NonNull AssetSearchCommand search, Long afterId, int limit) {
+        log.debug("Fetching assets matching {} after ID: {} with limit: {}", search, afterId, limit);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new AssetServiceException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %s", MAX_PAGE_SIZE));
+        }
+        long after = afterId == null ? 0L : afterId;
+        List<AssetRow> rows = search.isEmpty()
+                ? assetRepository.findRowsAfter(after, Limit.of(limit + 1))
+                : assetRepository.search(search, after, limit + 1);
+        return KeysetPage.of(rows, limit, AssetRow::id);
     }
 
     @Transactional(readOnly = true)
-    public Asset findById(Long id) {
-        log.info("Fetching asset with ID: {}", id);
-        return assetRepository.findById(id)
+    public void streamAll(Consumer<AssetDTO> consumer) {
+        log.debug("Streaming all assets");
+        assetRepository.streamAll(consumer);
+    }
+
+    /**
+     * The row carries the version it was read at, so a cached entry and the ETag built from it always agree.
+     */
+    @Transactional // on the write pool, see DataSourceConfig
+    @Cacheable(cacheNames = CacheConfig.ASSETS, key = "#id")
+    public AssetRow findById(Long id) {
+        log.debug("Fetching asset with ID: {}", id);
+        return assetRepository.findRowById(id)
                 .orElseThrow(() -> new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id)));
     }
 
     @Transactional
     public Asset create(@NonNull CreateAssetCommand command) {
-        Asset asset = Asset.builder()
-                .name(command.name())
-                .type(command.type())
-                .description(command.description())
-                .groups(new HashSet<>())
-                .build();
+        Asset asset = toAsset(command);
+        // with sequence ids the INSERT is deferred to commit, so bean validation would only fire there
+        String violations = validate(asset);
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+
+        log.debug("Creating new asset: {}", asset.getName());
+        Asset savedAsset = assetRepository.save(asset);
+        changeEventRepository.append(ChangeType.ASSET_CREATED, savedAsset.getId(), null);
+        return savedAsset;
+    }
 
-        log.info("Creating new asset: {}", asset.getName());
-        return assetRepository.save(asset);
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.ASSETS, CacheConfig.GROUP_ASSETS}, allEntries = true)
+    public BatchAssetResultDTO batch(@NonNull BatchAssetCommand command) {
+        log.debug("Executing asset batch with {} items", command.size());
+        if (command.size() > MAX_BATCH_SIZE) {
+            throw new AssetServiceException(HttpStatus.BAD_REQUEST, String.format("Batch cannot contain more than %s items", MAX_BATCH_SIZE));
+        }
+        return new BatchAssetResultDTO(
+                batchCreate(command.create()),
+                batchUpdate(command.update()),
+                batchDelete(command.delete()));
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ASSETS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.GROUP_ASSETS, allEntries = true)
+    })
     public void deleteById(Long id) {
-        log.info("Deleting asset with ID: {}", id);
-        if (!existsById(id)) {
-            log.warn("Asset with ID: {} not found", id);
+        log.debug("Deleting asset with ID: {}", id);
+        if (assetRepository.deleteAllByIdIn(List.of(id)).isEmpty()) {
+            log.debug("Asset with ID: {} not found", id);
             throw new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id));
         }
-        assetRepository.deleteById(id);
-        log.info("Asset with ID: {} deleted successfully", id);
+        changeEventRepository.append(ChangeType.ASSET_DELETED, id, null);
+        log.debug("Asset with ID: {} deleted successfully", id);
     }
 
     @Transactional
-    //here is example how to use pessimistic lock and optimistic lock - shouldn't use both but I wanted to show how to do it for both scenarios
-    public Asset update(Long id, @NonNull UpdateAssetCommand command) {
-        log.info("Updating asset with ID: {}", id);
-        //pess
-        Asset asset = assetRepository.findByIdWithLock(id)
-                .orElseThrow(() -> new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id)));
+    @CacheEvict(cacheNames = {CacheConfig.ASSETS, CacheConfig.GROUP_ASSETS}, allEntries = true)
+    public DeleteResultDTO deleteAllById(@NonNull AssetIdsCommand command) {
+        if (command.assetIds() == null || command.assetIds().isEmpty()) {
+            throw new AssetServiceException(HttpStatus.BAD_REQUEST, "Asset ids cannot be empty");
+        }
+        if (command.assetIds().size() > MAX_BATCH_SIZE) {
+            throw new AssetServiceException(HttpStatus.BAD_REQUEST, String.format("Cannot delete more than %s assets at once", MAX_BATCH_SIZE));
+        }
+        List<Long> ids = command.assetIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        log.debug("Deleting {} assets", ids.size());
+        Set<Long> deletedIds = ids.isEmpty() ? Set.of() : assetRepository.deleteAllByIdIn(ids);
+        changeEventRepository.appendAll(ChangeType.ASSET_DELETED, deletedIds);
+        log.info("Bulk delete removed {} of {} assets", deletedIds.size(), ids.size());
+        return new DeleteResultDTO(ids.size(), deletedIds.size());
+    }
 
-        Asset updatedAsset = Asset.builder()
-                .id(asset.getId())
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ASSETS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.GROUP_ASSETS, allEntries = true)
+    })
+    public Asset update(Long id, @NonNull UpdateAssetCommand command, @NonNull UpdateLockMode lockMode) {
+        log.debug("Updating asset with ID: {} using {} locking", id, lockMode);
+        Asset changes = Asset.builder()
+                .id(id)
                 .name(command.name())
                 .type(command.type())
                 .description(command.description())
-                .groups(asset.getGroups())
-                //opt
                 .version(command.version())
                 .build();
+        String violations = validate(changes);
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
 
-        log.info("Asset with ID: {} updated successfully", id);
-        return assetRepository.saveAndFlush(updatedAsset);
+        Asset updatedAsset = switch (lockMode) {
+            case OPTIMISTIC -> assetRepository.updateIfVersionMatches(changes)
+                    .orElseThrow(() -> assetRepository.existsById(id)
+                            ? AssetServiceException.staleVersion(id)
+                            : new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id)));
+            case PESSIMISTIC -> updateLocked(changes);
+        };
+        changeEventRepository.append(ChangeType.ASSET_UPDATED, id, null);
+        log.debug("Asset with ID: {} updated successfully", id);
+        return updatedAsset;
     }
 
-    public Asset findByIdWithGroups(Long id) {
-        log.info("Fetching asset with groups for ID: {}", id);
-        return assetRepository.findByIdWithGroups(id)
-                .orElseThrow(() -> new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id)));
+    public void requireExists(Long id) {
+        log.debug("Checking if asset with ID: {} exists", id);
+        if (!assetRepository.existsById(id)) {
+            throw new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id));
+        }
+    }
+
+    private List<ItemResult> batchCreate(List<CreateAssetCommand> commands) {
+        ItemResult[] results = new ItemResult[commands.size()];
+        List<Asset> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            Asset asset = commands.get(i) == null ? null : toAsset(commands.get(i));
+            String violations = asset == null ? "Asset cannot be null" : validate(asset);
+            if (violations != null) {
+                results[i] = new ItemResult(i, null, String.valueOf(HttpStatus.BAD_REQUEST.value()), violations);
+                continue;
+            }
+            valid.add(asset);
+            validIndexes.add(i);
+        }
+
+        List<Long> ids = valid.isEmpty() ? List.of() : assetRepository.insertAll(valid);
+        changeEventRepository.appendAll(ChangeType.ASSET_CREATED, ids);
+        for (int j = 0; j < ids.size(); j++) {
+            int index = validIndexes.get(j);
+            results[index] = new ItemResult(index, ids.get(j), String.valueOf(HttpStatus.CREATED.value()), null);
+        }
+        log.info("Batch created {} of {} assets", ids.size(), commands.size());
+        return Arrays.asList(results);
+    }
+
+    private List<ItemResult> batchUpdate(List<BatchAssetCommand.Update> commands) {
+        ItemResult[] results = new ItemResult[commands.size()];
+        List<Asset> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            BatchAssetCommand.Update command = commands.get(i);
+            if (command == null || command.id() == null) {
+                results[i] = new ItemResult(i, null, String.valueOf(HttpStatus.BAD_REQUEST.value()), "Asset id cannot be null");
+                continue;
+            }
+            Asset asset = Asset.builder()
+                    .id(command.id())
+                    .name(command.name())
+                    .type(command.type())
+                    .description(command.description())
+                    .version(command.version())
+                    .build();
+            String violations = validate(asset);
+            if (violations != null) {
+                results[i] = new ItemResult(i, command.id(), String.valueOf(HttpStatus.BAD_REQUEST.value()), violations);
+                continue;
+            }
+            valid.add(asset);
+            validIndexes.add(i);
+        }
+
+        int[] counts = valid.isEmpty() ? new int[0] : assetRepository.updateAll(valid);
+        List<Long> failedIds = new ArrayList<>();
+        for (int j = 0; j < counts.length; j++) {
+            if (counts[j] == 0) {
+                failedIds.add(valid.get(j).getId());
+            }
+        }
+        Set<Long> existingIds = failedIds.isEmpty() ? Set.of() : assetRepository.findExistingIds(failedIds);
+        List<Long> updatedIds = new ArrayList<>(counts.length - failedIds.size());
+        int conflicts = 0;
+        for (int j = 0; j < counts.length; j++) {
+            int index = validIndexes.get(j);
+            Long id = valid.get(j).getId();
+            if (counts[j] > 0) {
+                updatedIds.add(id);
+                results[index] = new ItemResult(index, id, String.valueOf(HttpStatus.OK.value()), null);
+            } else if (existingIds.contains(id)) {
+                conflicts++;
+                results[index] = new ItemResult(index, id, String.valueOf(HttpStatus.CONFLICT.value()), String.format("Asset with id %s was modified concurrently", id));
+            } else {
+                results[index] = new ItemResult(index, id, String.valueOf(HttpStatus.NOT_FOUND.value()), String.format("Asset with id %s not found", id));
+            }
+        }
+        if (conflicts > 0) {
+            // each is the lost version race a single update reports with AssetServiceException.staleVersion
+            meterRegistry.counter(GlobalExceptionHandler.CONFLICTS_METRIC, "exception", AssetServiceException.class.getSimpleName())
+                    .increment(conflicts);
+        }
+        changeEventRepository.appendAll(ChangeType.ASSET_UPDATED, updatedIds);
+        log.info("Batch updated {} of {} assets", counts.length - failedIds.size(), commands.size());
+        return Arrays.asList(results);
+    }
+
+    private List<ItemResult> batchDelete(List<Long> ids) {
+        List<Long> validIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Set<Long> deletedIds = validIds.isEmpty() ? Set.of() : assetRepository.deleteAllByIdIn(validIds);
+        changeEventRepository.appendAll(ChangeType.ASSET_DELETED, deletedIds);
+        // a repeated id is reported as if the items ran in order: the first occurrence deleted the row, the rest find it gone
+        Set<Long> unreported = new HashSet<>(deletedIds);
+        List<ItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(new ItemResult(i, null, String.valueOf(HttpStatus.BAD_REQUEST.value()), "Asset id cannot be null"));
+            } else if (unreported.remove(id)) {
+                results.add(new ItemResult(i, id, String.valueOf(HttpStatus.NO_CONTENT.value()), null));
+            } else {
+                results.add(new ItemResult(i, id, String.valueOf(HttpStatus.NOT_FOUND.value()), String.format("Asset with id %s not found", id)));
+            }
+        }
+        log.info("Batch deleted {} of {} assets", deletedIds.size(), ids.size());
+        return results;
+    }
+
+    private Asset updateLocked(Asset changes) {
+        Asset asset = assetRepository.findByIdWithLock(changes.getId())
+                .orElseThrow(() -> new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", changes.getId())));
+        asset.setName(changes.getName());
+        asset.setType(changes.getType());
+        asset.setDescription(changes.getDescription());
+        // the row is locked, so the version check in the flushed UPDATE cannot fail; flushing bumps the version we return
+        assetRepository.flush();
+        return asset;
+    }
+
+    private String validate(Asset asset) {
+        Set<ConstraintViolation<Asset>> violations = validator.validate(asset);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessageTemplate)
+                .sorted()
+                .collect(Collectors.joining(" "));
     }
 
-    private boolean existsById(Long id) {
-        log.info("Checking if asset with ID: {} exists", id);
-        return assetRepository.existsById(id);
+    private Asset toAsset(CreateAssetCommand command) {
+        return Asset.builder()
+                .name(command.name())
+                .type(command.type())
+                .description(command.description())
+                .groups(new HashSet<>())
+                .build();
     }
 }
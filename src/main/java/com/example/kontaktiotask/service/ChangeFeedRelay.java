@@ -0,0 +1,64 @@
+package com.example.kontaktiotask.service;
+
+import com.example.kontaktiotask.config.ChangeFeedProperties;
+import com.example.kontaktiotask.model.dto.ChangeFeedDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Moves committed outbox rows onto the change feed in batches and answers long polls. A poll that finds
+ * nothing new parks as a {@link DeferredResult}, holding no request thread and no connection, until a
+ * relay run sees the feed move past its position or the wait runs out. Parked polls are checked against
+ * the database rather than against this instance's own batches, so they also wake up for events another
+ * instance published.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedRelay {
+
+    private final ChangeFeedService changeFeedService;
+    private final ChangeFeedProperties properties;
+    private final Queue<Poll> polls = new ConcurrentLinkedQueue<>();
+
+    public DeferredResult<ChangeFeedDTO> poll(long after, int limit, Duration wait) {
+        Duration timeout = wait.compareTo(properties.maxWait()) > 0 ? properties.maxWait() : wait;
+        ChangeFeedDTO feed = changeFeedService.read(after, limit);
+        // an expired poll answers with the empty slice, whose token is the one the client sent
+        DeferredResult<ChangeFeedDTO> result = new DeferredResult<>(Math.max(1, timeout.toMillis()), feed);
+        if (!feed.events().isEmpty() || timeout.isZero() || timeout.isNegative()) {
+            result.setResult(feed);
+            return result;
+        }
+        Poll poll = new Poll(after, limit, result);
+        polls.add(poll);
+        result.onCompletion(() -> polls.remove(poll));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-feed.relay-interval}")
+    public void relay() {
+        changeFeedService.publishPending();
+        if (polls.isEmpty()) {
+            return;
+        }
+        long latest = changeFeedService.findLatestPosition();
+        for (Poll poll : polls) {
+            if (poll.after() < latest && !poll.result().isSetOrExpired()) {
+                poll.result().setResult(changeFeedService.read(poll.after(), poll.limit()));
+            }
+        }
+    }
+
+    private record Poll(long after, int limit, DeferredResult<ChangeFeedDTO> result) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.kontaktiotask.service;
+
+import com.example.kontaktiotask.config.ChangeFeedProperties;
+import com.example.kontaktiotask.exception.ChangeFeedServiceException;
+import com.example.kontaktiotask.model.dto.ChangeEventDTO;
+import com.example.kontaktiotask.model.dto.ChangeFeedDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.repository.ChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ChangeFeedService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeFeedProperties properties;
+
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO read(long after, int limit) {
+        log.debug("Reading changes after position: {} with limit: {}", after, limit);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ChangeFeedServiceException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %s", MAX_PAGE_SIZE));
+        }
+        List<ChangeEventDTO> events = changeEventRepository.findAfter(after, limit);
+        long next = events.isEmpty() ? after : events.get(events.size() - 1).position();
+        return new ChangeFeedDTO(events, KeysetPage.encodeCursor(next));
+    }
+
+    /**
+     * The feed as of now, without events: a consumer that is about to scan the current state takes this
+     * first and follows the feed from it afterwards, so nothing changed during the scan is lost.
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO head() {
+        return new ChangeFeedDTO(List.of(), KeysetPage.encodeCursor(changeEventRepository.findLatestPosition()));
+    }
+
+    @Transactional(readOnly = true)
+    public long findLatestPosition() {
+        return changeEventRepository.findLatestPosition();
+    }
+
+    @Transactional
+    public int publishPending() {
+        int published = changeEventRepository.publishPending(properties.batchSize());
+        if (published > 0) {
+            log.debug("Published {} change events", published);
+        }
+        return published;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.kontaktiotask.service;
+
+import com.example.kontaktiotask.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts the {@link CacheConfig#GROUP_ASSETS} entries of particular groups, which {@code @CacheEvict} can only
+ * do for one exact key or for the whole cache. Every key in that cache is a list starting with the group id,
+ * so the entries are found by scanning the keys. Like the evictions of the transaction-aware cache manager,
+ * this one waits for the surrounding transaction to commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class GroupAssetsCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public void evictAfterCommit(Collection<Long> groupIds) {
+        if (groupIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = Set.copyOf(groupIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(ids);
+            }
+        });
+    }
+
+    private void evict(Set<Long> groupIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.GROUP_ASSETS);
+        if (cache == null) {
+            return;
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            caffeine.asMap().keySet().removeIf(key -> key instanceof List<?> parts && groupIds.contains(parts.get(0)));
+        } else {
+            cache.clear();
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package com.example.kontaktiotask.service;
 
+import com.example.kontaktiotask.config.CacheConfig;
 import com.example.kontaktiotask.exception.GroupServiceException;
-import com.example.kontaktiotask.model.Asset;
 import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSortOrder;
 import com.example.kontaktiotask.model.command.CreateGroupCommand;
+import com.example.kontaktiotask.model.command.MoveGroupCommand;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.model.dto.MembershipChangeDTO;
+import com.example.kontaktiotask.repository.ChangeEventRepository;
 import com.example.kontaktiotask.repository.GroupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
-import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -23,23 +38,54 @@ import java.util.stream.Collectors;
 @Validated
 public class GroupService {
 
+    public static final int MAX_MEMBERSHIP_BATCH_SIZE = 100_000;
+
     private final GroupRepository groupRepository;
     private final AssetService assetService;
+    private final ChangeEventRepository changeEventRepository;
+    private final GroupAssetsCacheEvictor groupAssetsCacheEvictor;
 
     @Transactional(readOnly = true)
-    public List<Group> findAll() {
-        log.info("Fetching all groups");
-        return groupRepository.findAll();
+    public List<GroupDTO> findAll() {
+        log.debug("Fetching all groups");
+        return groupRepository.findAllDtos();
     }
 
     @Transactional(readOnly = true)
-    public List<Asset> findGroupAssets(Long groupId) {
-        log.info("Fetching assets for group with ID: {}", groupId);
-        return groupRepository.findByIdWithAssets(groupId)
-                .map(Group::getAssets)
-                .stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+    public String findListVersion() {
+        return groupRepository.findListVersion();
+    }
+
+    @Transactional // on the write pool, see DataSourceConfig
+    @Cacheable(cacheNames = CacheConfig.GROUP_ASSETS, key = "{#groupId, #sort, #after, #limit}")
+    public KeysetPage<AssetRow> findGroupAssets(Long groupId, @NonNull AssetSortOrder sort, KeysetPage.Position after, int limit) {
+        log.debug("Fetching assets for group with ID: {} in {} order after: {} with limit: {}", groupId, sort, after, limit);
+        if (limit < 1 || limit > AssetService.MAX_PAGE_SIZE) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %s", AssetService.MAX_PAGE_SIZE));
+        }
+        List<AssetRow> rows = groupRepository.findAssetPage(groupId, sort, after, limit + 1);
+        if (rows.isEmpty()) {
+            requireExists(groupId);
+        }
+        return KeysetPage.of(rows, limit, AssetRow::id, AssetRow::name);
+    }
+
+    /**
+     * Like {@link #findGroupAssets}, over the group's own members and those of every group nested under it;
+     * an asset that is in several of these groups is listed once.
+     */
+    @Transactional // on the write pool, see DataSourceConfig
+    @Cacheable(cacheNames = CacheConfig.GROUP_ASSETS, key = "{#groupId, 'subtree', #sort, #after, #limit}")
+    public KeysetPage<AssetRow> findSubtreeAssets(Long groupId, @NonNull AssetSortOrder sort, KeysetPage.Position after, int limit) {
+        log.debug("Fetching assets under group with ID: {} in {} order after: {} with limit: {}", groupId, sort, after, limit);
+        if (limit < 1 || limit > AssetService.MAX_PAGE_SIZE) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %s", AssetService.MAX_PAGE_SIZE));
+        }
+        List<AssetRow> rows = groupRepository.findSubtreeAssetPage(groupId, sort, after, limit + 1);
+        if (rows.isEmpty()) {
+            requireExists(groupId);
+        }
+        return KeysetPage.of(rows, limit, AssetRow::id, AssetRow::name);
     }
 
     @Transactional
@@ -47,56 +93,192 @@ public class GroupService {
         Group group = Group.builder()
                 .name(command.name())
                 .description(command.description())
+                .parentId(command.parentId())
                 .build();
-        log.info("Creating new group: {}", group.getName());
-        return groupRepository.saveAndFlush(group);
+        log.debug("Creating new group: {} under parent with ID: {}", group.getName(), group.getParentId());
+        if (group.getParentId() != null) {
+            groupRepository.lockHierarchy();
+            requireExists(group.getParentId());
+        }
+        Group savedGroup = groupRepository.saveAndFlush(group);
+        if (savedGroup.getParentId() != null) {
+            groupRepository.insertAncestors(savedGroup.getId(), savedGroup.getParentId());
+        }
+        changeEventRepository.append(ChangeType.GROUP_CREATED, null, savedGroup.getId());
+        return savedGroup;
+    }
+
+    /**
+     * Nests the group, with everything under it, under another group or makes it top-level. Moving a group
+     * under itself or under one of its own descendants is rejected with 409.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.GROUP_ASSETS, allEntries = true)
+    public void move(Long groupId, @NonNull MoveGroupCommand command) {
+        Long parentId = command.parentId();
+        log.debug("Moving group with ID: {} under parent with ID: {}", groupId, parentId);
+        groupRepository.lockHierarchy();
+        requireExists(groupId);
+        if (parentId != null) {
+            requireExists(parentId);
+            if (parentId.equals(groupId) || groupRepository.isAncestor(groupId, parentId)) {
+                throw new GroupServiceException(HttpStatus.CONFLICT, String.format("Group with id %s cannot be moved under itself or its descendant %s", groupId, parentId));
+            }
+        }
+        groupRepository.moveSubtree(groupId, parentId);
+        changeEventRepository.append(ChangeType.GROUP_MOVED, null, groupId);
     }
 
     @Transactional
     public void addAsset(Long groupId, Long assetId) {
-        log.info("Adding asset with ID: {} to group with ID: {}", assetId, groupId);
-        Group group = findByIdWithAssets(groupId);
-        Asset asset = assetService.findByIdWithGroups(assetId);
+        log.debug("Adding asset with ID: {} to group with ID: {}", assetId, groupId);
+        requireExists(groupId);
 
-        addAsset(group, asset);
-        log.info("Asset added successfully to group");
-        groupRepository.saveAndFlush(group);
+        // the insert skips missing assets and existing members, so a miss is told apart only afterwards
+        if (groupRepository.addAssets(groupId, List.of(assetId)) == 0) {
+            assetService.requireExists(assetId);
+            log.debug("Asset with ID: {} already exists in group", assetId);
+            throw new GroupServiceException(HttpStatus.CONFLICT, String.format("Asset with id %s already exists in assets", assetId));
+        }
+        groupRepository.incrementVersion(groupId);
+        evictGroupAssets(List.of(groupId));
     }
 
     @Transactional
     public void removeAsset(Long groupId, Long assetId) {
-        log.info("Removing asset with ID: {} from group with ID: {}", assetId, groupId);
-        Group group = findByIdWithAssets(groupId);
-        Asset asset = assetService.findByIdWithGroups(assetId);
+        log.debug("Removing asset with ID: {} from group with ID: {}", assetId, groupId);
+        requireExists(groupId);
+
+        if (groupRepository.removeAssets(groupId, List.of(assetId)) == 0) {
+            assetService.requireExists(assetId);
+            log.debug("Asset with ID: {} not found in group", assetId);
+            throw new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found in assets", assetId));
+        }
+        groupRepository.incrementVersion(groupId);
+        evictGroupAssets(List.of(groupId));
+    }
+
+    @Transactional(readOnly = true)
+    public long countAssets(Long groupId) {
+        log.debug("Counting assets in group with ID: {}", groupId);
+        return groupRepository.countAssets(groupId)
+                .orElseThrow(() -> new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Group with id %s not found", groupId)));
+    }
 
-        removeAsset(group, asset);
-        log.info("Asset removed successfully from group");
-        groupRepository.saveAndFlush(group);
+    /**
+     * Counting has to visit every membership in the subtree, so the count is cached with the subtree's pages
+     * and dropped with them on a membership change anywhere in the subtree.
+     */
+    @Transactional // on the write pool, see DataSourceConfig
+    @Cacheable(cacheNames = CacheConfig.GROUP_ASSETS, key = "{#groupId, 'subtree-count'}")
+    public long countSubtreeAssets(Long groupId) {
+        log.debug("Counting assets under group with ID: {}", groupId);
+        return groupRepository.countSubtreeAssets(groupId)
+                .orElseThrow(() -> new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Group with id %s not found", groupId)));
     }
 
-    private Group findByIdWithAssets(Long id) {
-        log.info("Fetching group with assets for ID: {}", id);
-        return groupRepository.findByIdWithAssets(id)
-                .orElseThrow(() -> new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Group with id %s not found", id)));
+    @Transactional(readOnly = true)
+    public void requireMember(Long groupId, Long assetId) {
+        log.debug("Checking if asset with ID: {} is in group with ID: {}", assetId, groupId);
+        if (!groupRepository.containsAsset(groupId, assetId)) {
+            requireExists(groupId);
+            throw new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found in assets", assetId));
+        }
+    }
+
+    @Transactional
+    public MembershipChangeDTO addAssets(Long groupId, @NonNull AssetIdsCommand command) {
+        List<Long> assetIds = distinctAssetIds(command);
+        log.debug("Adding {} assets to group with ID: {}", assetIds.size(), groupId);
+        requireExists(groupId);
+
+        int affected = groupRepository.addAssets(groupId, assetIds);
+        if (affected > 0) {
+            groupRepository.incrementVersion(groupId);
+            evictGroupAssets(List.of(groupId));
+        }
+        log.debug("Added {} of {} assets to group with ID: {}", affected, assetIds.size(), groupId);
+        return new MembershipChangeDTO(assetIds.size(), affected);
+    }
+
+    @Transactional
+    public MembershipChangeDTO removeAssets(Long groupId, @NonNull AssetIdsCommand command) {
+        List<Long> assetIds = distinctAssetIds(command);
+        log.debug("Removing {} assets from group with ID: {}", assetIds.size(), groupId);
+        requireExists(groupId);
+
+        int affected = groupRepository.removeAssets(groupId, assetIds);
+        if (affected > 0) {
+            groupRepository.incrementVersion(groupId);
+            evictGroupAssets(List.of(groupId));
+        }
+        log.debug("Removed {} of {} assets from group with ID: {}", affected, assetIds.size(), groupId);
+        return new MembershipChangeDTO(assetIds.size(), affected);
+    }
+
+    /**
+     * Applies queued membership changes, already coalesced to one per pair, in a single transaction: one
+     * insert and one delete per group, and one version bump for each group that actually changed. Missing
+     * assets, existing members and absent members are skipped as in {@link #addAssets} and {@link #removeAssets}.
+     * Returns the number of join rows inserted or deleted.
+     */
+    @Transactional
+    public int applyMembershipChanges(@NonNull Map<Long, List<Long>> added, @NonNull Map<Long, List<Long>> removed) {
+        log.debug("Applying queued additions to {} groups and removals from {} groups", added.size(), removed.size());
+        // versions are bumped in group id order, so concurrent flushes from two instances cannot deadlock on them
+        Map<Long, Integer> affected = new TreeMap<>();
+        added.forEach((groupId, assetIds) -> affected.merge(groupId, groupRepository.addAssets(groupId, assetIds), Integer::sum));
+        removed.forEach((groupId, assetIds) -> affected.merge(groupId, groupRepository.removeAssets(groupId, assetIds), Integer::sum));
+        List<Long> changed = affected.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        changed.forEach(groupRepository::incrementVersion);
+        evictGroupAssets(changed);
+        return affected.values().stream().mapToInt(Integer::intValue).sum();
     }
 
-    private void addAsset(Group group, Asset asset) {
-        if (group.getAssets().contains(asset)) {
-            log.warn("Asset with ID: {} already exists in group", asset.getId());
-            throw new GroupServiceException(HttpStatus.CONFLICT, String.format("Asset with id %s already exists in assets", asset.getId()));
+    /**
+     * Streams every group and its members, see {@link GroupRepository#forEachMembership}; the read-only
+     * transaction lets the rows be fetched in chunks from the read pool.
+     */
+    @Transactional(readOnly = true)
+    public void forEachMembership(@NonNull BiConsumer<Long, Long> consumer) {
+        log.debug("Scanning all group memberships");
+        groupRepository.forEachMembership(consumer);
+    }
+
+    /**
+     * A membership change shows in the group's own pages and in the subtree pages and counts of every group
+     * above it; the cached pages of all other groups are kept.
+     */
+    private void evictGroupAssets(List<Long> groupIds) {
+        if (groupIds.isEmpty()) {
+            return;
         }
-        group.getAssets().add(asset);
-        asset.getGroups().add(group);
-        log.info("Asset with ID: {} added to group", asset.getId());
+        Set<Long> affected = new HashSet<>(groupIds);
+        affected.addAll(groupRepository.findAncestorIds(groupIds));
+        groupAssetsCacheEvictor.evictAfterCommit(affected);
     }
 
-    private void removeAsset(Group group, Asset asset) {
-        if (!group.getAssets().contains(asset)) {
-            log.warn("Asset with ID: {} not found in group", asset.getId());
-            throw new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found in assets", asset.getId()));
+    @Transactional // on the write pool, see DataSourceConfig
+    public void requireExists(Long id) {
+        if (!groupRepository.existsById(id)) {
+            log.debug("Group with ID: {} not found", id);
+            throw new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Group with id %s not found", id));
+        }
+    }
+
+    private List<Long> distinctAssetIds(AssetIdsCommand command) {
+        if (command.assetIds() == null || command.assetIds().isEmpty()) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, "Asset ids cannot be empty");
+        }
+        if (command.assetIds().size() > MAX_MEMBERSHIP_BATCH_SIZE) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, String.format("Cannot change more than %s assets at once", MAX_MEMBERSHIP_BATCH_SIZE));
         }
-        group.getAssets().remove(asset);
-        asset.getGroups().remove(group);
-        log.info("Asset with ID: {} removed from group", asset.getId());
+        return command.assetIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
     }
 }
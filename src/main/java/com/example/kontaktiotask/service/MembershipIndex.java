@@ -0,0 +1,214 @@
+package com.example.kontaktiotask.service;
+
+import com.example.kontaktiotask.exception.GroupServiceException;
+import com.example.kontaktiotask.model.dto.ChangeEventDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.model.dto.MembershipQueryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Every group's members as a compressed bitmap of asset ids, so set queries over groups are answered from
+ * memory. The index is loaded from {@code asset_group} on startup and then follows the change feed, which
+ * carries exactly the memberships that changed on any instance; it trails the database by about one relay
+ * interval.
+ * <p>
+ * Loading reads the feed position before the tables, so a change committed in between is both in the
+ * snapshot and replayed afterwards. Replaying it is harmless, since each event only sets a pair's
+ * membership to what it was after that change.
+ */
+@Component
+@Slf4j
+public class MembershipIndex {
+
+    public static final int MAX_QUERY_GROUPS = 100;
+    private static final int REPLAY_BATCH_SIZE = ChangeFeedService.MAX_PAGE_SIZE;
+
+    private final GroupService groupService;
+    private final ChangeFeedService changeFeedService;
+    // queries share the read lock; replaying the feed and swapping in a reload take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Roaring64Bitmap> assetsByGroup = new TreeMap<>();
+    private long position;
+
+    public MembershipIndex(GroupService groupService, ChangeFeedService changeFeedService, MeterRegistry meterRegistry) {
+        this.groupService = groupService;
+        this.changeFeedService = changeFeedService;
+        meterRegistry.gauge("membership.index.groups", this, index -> index.read(map -> map.size()));
+        meterRegistry.gauge("membership.index.bytes", this,
+                index -> index.read(map -> map.values().stream().mapToLong(Roaring64Bitmap::getSizeInBytes).sum()));
+    }
+
+    /**
+     * Rebuilds the index from the tables and catches up with the feed. Needed only when memberships were
+     * changed behind the feed's back, such as by deleting rows by hand.
+     */
+    @PostConstruct
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        long from = changeFeedService.findLatestPosition();
+        Map<Long, Roaring64Bitmap> loaded = new TreeMap<>();
+        groupService.forEachMembership((groupId, assetId) -> {
+            Roaring64Bitmap assets = loaded.computeIfAbsent(groupId, id -> new Roaring64Bitmap());
+            if (assetId != null) {
+                assets.addLong(assetId);
+            }
+        });
+        loaded.values().forEach(Roaring64Bitmap::runOptimize);
+        lock.writeLock().lock();
+        try {
+            assetsByGroup = loaded;
+            position = from;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        refresh();
+        log.info("Loaded membership index of {} groups in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-feed.relay-interval}")
+    public synchronized void refresh() {
+        List<ChangeEventDTO> events;
+        do {
+            events = changeFeedService.read(position, REPLAY_BATCH_SIZE).events();
+            if (!events.isEmpty()) {
+                apply(events);
+            }
+        } while (events.size() == REPLAY_BATCH_SIZE);
+    }
+
+    /**
+     * Assets that are members of every group in {@code allOf}, of at least one group in {@code anyOf} and
+     * of none in {@code noneOf}, in ascending id order after {@code after}. At least one of {@code allOf} and
+     * {@code anyOf} must be given; an empty one places no constraint.
+     */
+    public MembershipQueryDTO query(Collection<Long> allOf, Collection<Long> anyOf, Collection<Long> noneOf, Long after, int limit) {
+        log.debug("Querying assets in all of: {}, any of: {}, none of: {} after: {} with limit: {}", allOf, anyOf, noneOf, after, limit);
+        if (limit < 1 || limit > AssetService.MAX_PAGE_SIZE) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, String.format("Limit must be between 1 and %s", AssetService.MAX_PAGE_SIZE));
+        }
+        if (allOf.isEmpty() && anyOf.isEmpty()) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, "At least one of allOf and anyOf is required");
+        }
+        if (allOf.size() + anyOf.size() + noneOf.size() > MAX_QUERY_GROUPS) {
+            throw new GroupServiceException(HttpStatus.BAD_REQUEST, String.format("Cannot query more than %s groups at once", MAX_QUERY_GROUPS));
+        }
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = evaluate(allOf, anyOf, noneOf);
+            List<Long> ids = new ArrayList<>(limit + 1);
+            PeekableLongIterator iterator = after == null ? result.getLongIterator() : result.getLongIteratorFrom(after + 1);
+            while (iterator.hasNext() && ids.size() <= limit) {
+                ids.add(iterator.next());
+            }
+            KeysetPage<Long> page = KeysetPage.of(ids, limit, Function.identity());
+            return new MembershipQueryDTO(result.getLongCardinality(), page.items(), page.next());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the groups the asset is a member of, ascending. An asset that does not exist, like one that is
+     * in no group, has none.
+     */
+    public List<Long> findGroupIds(Long assetId) {
+        log.debug("Finding groups of asset with ID: {}", assetId);
+        // groups are few next to assets, so probing every group's bitmap beats keeping a reverse index per asset
+        return read(map -> map.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(assetId))
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    private Roaring64Bitmap evaluate(Collection<Long> allOf, Collection<Long> anyOf, Collection<Long> noneOf) {
+        Roaring64Bitmap result = null;
+        if (!allOf.isEmpty()) {
+            // starting from the smallest group keeps every intermediate result small
+            List<Roaring64Bitmap> groups = allOf.stream()
+                    .map(this::members)
+                    .sorted(Comparator.comparingLong(Roaring64Bitmap::getLongCardinality))
+                    .toList();
+            result = groups.get(0).clone();
+            for (int i = 1; i < groups.size() && !result.isEmpty(); i++) {
+                result.and(groups.get(i));
+            }
+        }
+        if (!anyOf.isEmpty()) {
+            Roaring64Bitmap union = new Roaring64Bitmap();
+            anyOf.forEach(groupId -> union.or(members(groupId)));
+            if (result == null) {
+                result = union;
+            } else {
+                result.and(union);
+            }
+        }
+        for (Long groupId : noneOf) {
+            result.andNot(members(groupId));
+        }
+        return result;
+    }
+
+    private Roaring64Bitmap members(Long groupId) {
+        Roaring64Bitmap assets = assetsByGroup.get(groupId);
+        if (assets == null) {
+            throw new GroupServiceException(HttpStatus.NOT_FOUND, String.format("Group with id %s not found", groupId));
+        }
+        return assets;
+    }
+
+    private void apply(List<ChangeEventDTO> events) {
+        // asset ids are never reused, so deletions can be applied once for the whole batch, after everything else
+        Roaring64Bitmap deleted = new Roaring64Bitmap();
+        lock.writeLock().lock();
+        try {
+            for (ChangeEventDTO event : events) {
+                switch (event.type()) {
+                    case GROUP_CREATED -> assetsByGroup.putIfAbsent(event.groupId(), new Roaring64Bitmap());
+                    case GROUP_ASSET_ADDED -> assetsByGroup.computeIfAbsent(event.groupId(), id -> new Roaring64Bitmap())
+                            .addLong(event.assetId());
+                    case GROUP_ASSET_REMOVED -> {
+                        Roaring64Bitmap assets = assetsByGroup.get(event.groupId());
+                        if (assets != null) {
+                            assets.removeLong(event.assetId());
+                        }
+                    }
+                    case ASSET_DELETED -> deleted.addLong(event.assetId());
+                    default -> {
+                    }
+                }
+            }
+            if (!deleted.isEmpty()) {
+                assetsByGroup.values().forEach(assets -> assets.andNot(deleted));
+            }
+            position = events.get(events.size() - 1).position();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<Map<Long, Roaring64Bitmap>, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(assetsByGroup);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.kontaktiotask.service;
+
+import com.example.kontaktiotask.config.MembershipQueueProperties;
+import com.example.kontaktiotask.exception.GroupServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts single-asset membership changes without touching the database and applies them in batched
+ * transactions every {@code flush-interval}. Only the latest change per (group, asset) pair is kept, so an
+ * add and a remove of the same pair between two flushes collapse into the remove, and repeats into one.
+ * The number of pending pairs is capped by {@code max-pending}; beyond it new pairs are turned away with a
+ * 429 while changes to pairs already queued are still accepted.
+ * <p>
+ * A queued change is acknowledged before it is applied, so nothing reports a missing asset or an asset that
+ * already was a member; both are simply skipped by the flush. Changes still queued when the instance stops
+ * are flushed on shutdown, but are lost if it crashes.
+ * <p>
+ * Flushes run on the queue's own thread rather than on the shared scheduler, so a backlog never delays the
+ * change-feed relay or the membership index refresh, and a slow relay never delays a flush. One run applies
+ * at most {@code max-batches-per-flush} batches; the rest of a backlog waits for the next run.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.membership-queue", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(MembershipQueueProperties.class)
+public class MembershipWriteQueue {
+
+    private final GroupService groupService;
+    private final MembershipQueueProperties properties;
+    private final Map<Membership, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // groups cannot be deleted, so a group seen once never has to be looked up again
+    private final Set<Long> knownGroups = ConcurrentHashMap.newKeySet();
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Timer flushTimer;
+    private final Timer latency;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    public MembershipWriteQueue(GroupService groupService, MembershipQueueProperties properties, MeterRegistry meterRegistry) {
+        this.groupService = groupService;
+        this.properties = properties;
+        meterRegistry.gauge("membership.queue.pending", pendingCount);
+        this.coalesced = meterRegistry.counter("membership.queue.coalesced");
+        this.rejected = meterRegistry.counter("membership.queue.rejected");
+        this.flushTimer = meterRegistry.timer("membership.queue.flush");
+        // time from the first queued change of a pair to the commit that applied it; flush-interval is its target
+        this.latency = Timer.builder("membership.queue.latency").publishPercentileHistogram().register(meterRegistry);
+    }
+
+    public void add(Long groupId, Long assetId) {
+        enqueue(groupId, assetId, true);
+    }
+
+    public void remove(Long groupId, Long assetId) {
+        enqueue(groupId, assetId, false);
+    }
+
+    private void enqueue(Long groupId, Long assetId, boolean add) {
+        log.debug("Queueing {} of asset with ID: {} in group with ID: {}", add ? "addition" : "removal", assetId, groupId);
+        if (!knownGroups.contains(groupId)) {
+            groupService.requireExists(groupId);
+            knownGroups.add(groupId);
+        }
+        pending.compute(new Membership(groupId, assetId), (key, current) -> {
+            if (current == null) {
+                if (pendingCount.incrementAndGet() > properties.maxPending()) {
+                    pendingCount.decrementAndGet();
+                    rejected.increment();
+                    throw queueFull();
+                }
+                return new Pending(add, System.nanoTime());
+            }
+            coalesced.increment();
+            // the pair keeps its place in line: latency is measured from its first queued change
+            return current.add() == add ? current : new Pending(add, current.enqueuedAt());
+        });
+    }
+
+    @PostConstruct
+    void startFlushing() {
+        scheduler.setThreadNamePrefix("membership-queue-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::flush, Instant.now().plus(properties.flushInterval()), properties.flushInterval());
+    }
+
+    public void flush() {
+        // a full batch means more may be waiting; a partial or failed one, or the cap, ends the run
+        int batches = 1;
+        while (flushBatch() == properties.batchSize() && batches++ < properties.maxBatchesPerFlush()) {
+            log.debug("Membership queue still has {} pending changes", pendingCount.get());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        scheduler.destroy();
+        log.info("Flushing {} queued membership changes before shutdown", pendingCount.get());
+        // no cap here: whatever is not applied now is lost
+        while (flushBatch() > 0) {
+            log.debug("Membership queue still has {} pending changes", pendingCount.get());
+        }
+    }
+
+    private int flushBatch() {
+        Map<Membership, Pending> batch = new HashMap<>();
+        for (Map.Entry<Membership, Pending> entry : pending.entrySet()) {
+            if (batch.size() == properties.batchSize()) {
+                break;
+            }
+            // a pair changed again since it was read stays queued for the next batch
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                pendingCount.decrementAndGet();
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<Long>> added = new TreeMap<>();
+        Map<Long, List<Long>> removed = new TreeMap<>();
+        batch.forEach((membership, change) -> (change.add() ? added : removed)
+                .computeIfAbsent(membership.groupId(), groupId -> new ArrayList<>())
+                .add(membership.assetId()));
+        try {
+            flushTimer.record(() -> groupService.applyMembershipChanges(added, removed));
+        } catch (RuntimeException e) {
+            log.error("Failed to apply {} queued membership changes, they will be retried", batch.size(), e);
+            requeue(batch);
+            return 0;
+        }
+        long now = System.nanoTime();
+        batch.values().forEach(change -> latency.record(now - change.enqueuedAt(), TimeUnit.NANOSECONDS));
+        return batch.size();
+    }
+
+    private void requeue(Map<Membership, Pending> batch) {
+        // a change queued for the same pair in the meantime is newer and wins; the cap is not applied here
+        batch.forEach((membership, change) -> {
+            if (pending.putIfAbsent(membership, change) == null) {
+                pendingCount.incrementAndGet();
+            }
+        });
+    }
+
+    private GroupServiceException queueFull() {
+        HttpHeaders headers = new HttpHeaders();
+        long seconds = Math.max(1, (properties.flushInterval().toMillis() + 999) / 1000);
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return new GroupServiceException(HttpStatus.TOO_MANY_REQUESTS, "Membership queue is full, retry later", headers);
+    }
+
+    private record Membership(Long groupId, Long assetId) {
+    }
+
+    private record Pending(boolean add, long enqueuedAt) {
+    }
+}
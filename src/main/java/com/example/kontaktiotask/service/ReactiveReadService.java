@@ -0,0 +1,45 @@
+package com.example.kontaktiotask.service;
+
+import com.example.kontaktiotask.exception.AssetServiceException;
+import com.example.kontaktiotask.model.dto.AssetDTO;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import com.example.kontaktiotask.repository.ReactiveAssetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of the read side of {@link AssetService} and {@link GroupService}. Writes stay on JPA,
+ * so nothing here touches the Spring or Hibernate caches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveReadService {
+
+    private final ReactiveAssetRepository reactiveAssetRepository;
+
+    public Flux<AssetDTO> findAllAssets(Long afterId) {
+        log.debug("Streaming assets after ID: {}", afterId);
+        return reactiveAssetRepository.findAllAfter(afterId == null ? 0L : afterId);
+    }
+
+    public Mono<AssetDTO> findAssetById(Long id) {
+        log.debug("Fetching asset with ID: {}", id);
+        return reactiveAssetRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new AssetServiceException(HttpStatus.NOT_FOUND, String.format("Asset with id %s not found", id))));
+    }
+
+    public Flux<GroupDTO> findAllGroups() {
+        log.debug("Streaming all groups");
+        return reactiveAssetRepository.findAllGroups();
+    }
+
+    public Flux<AssetDTO> findGroupAssets(Long groupId) {
+        log.debug("Streaming assets for group with ID: {}", groupId);
+        return reactiveAssetRepository.findGroupAssets(groupId);
+    }
+}
@@ -0,0 +1,17 @@
+-- One-off migration for databases created while Asset and Group still used IDENTITY ids.
+-- Drops the identity from both id columns and creates the sequences the entities now use, each starting
+-- past the current maximum id so existing rows keep their ids. INCREMENT BY must match
+-- Asset.ID_ALLOCATION_SIZE: with the pooled-lo optimizer every nextval reserves a block of that many ids.
+BEGIN;
+
+LOCK TABLE asset, groups IN EXCLUSIVE MODE;
+
+ALTER TABLE asset ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS asset_id_seq INCREMENT BY 50;
+SELECT setval('asset_id_seq', COALESCE((SELECT max(id) FROM asset), 0) + 1, false);
+
+ALTER TABLE groups ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS groups_id_seq INCREMENT BY 50;
+SELECT setval('groups_id_seq', COALESCE((SELECT max(id) FROM groups), 0) + 1, false);
+
+COMMIT;
@@ -0,0 +1,31 @@
+-- The schema exactly as Hibernate generated it from the entities before migrations were introduced, so a
+-- database created that way can be baselined at this version (spring.flyway.baseline-on-migrate).
+-- Sequence increments must match Asset.ID_ALLOCATION_SIZE.
+CREATE SEQUENCE asset_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE groups_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE asset (
+    version     integer      NOT NULL,
+    id          bigint       NOT NULL,
+    description varchar(255),
+    name        varchar(255) NOT NULL,
+    type        varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE groups (
+    version     integer      NOT NULL,
+    id          bigint       NOT NULL,
+    description varchar(255),
+    name        varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE asset_group (
+    asset_id bigint NOT NULL,
+    group_id bigint NOT NULL,
+    PRIMARY KEY (asset_id, group_id)
+);
+
+ALTER TABLE asset_group ADD CONSTRAINT asset_group_asset_id_fkey FOREIGN KEY (asset_id) REFERENCES asset;
+ALTER TABLE asset_group ADD CONSTRAINT asset_group_group_id_fkey FOREIGN KEY (group_id) REFERENCES groups;
@@ -0,0 +1,7 @@
+-- Hibernate keyed asset_group on (asset_id, group_id), which leaves every group-side access (loading a
+-- group's assets, membership inserts and deletes by group_id, the group_id foreign key check when a group
+-- is deleted) without a usable index. The primary key now leads with group_id, and a second index serves
+-- the asset side: Asset.groups, deleting an asset's memberships and the asset_id foreign key check.
+ALTER TABLE asset_group DROP CONSTRAINT asset_group_pkey;
+ALTER TABLE asset_group ADD CONSTRAINT asset_group_pkey PRIMARY KEY (group_id, asset_id);
+CREATE INDEX asset_group_asset_id_group_id_idx ON asset_group (asset_id, group_id);
@@ -0,0 +1,7 @@
+-- Indexes behind the filters of GET /api/v1/assets, see AssetRepositoryCustomImpl.search.
+-- type = ?
+CREATE INDEX IF NOT EXISTS asset_type_idx ON asset (type);
+-- name LIKE 'prefix%'; text_pattern_ops keeps the index usable for prefixes under any collation
+CREATE INDEX IF NOT EXISTS asset_name_prefix_idx ON asset (name text_pattern_ops);
+-- full-text match on description; queries must repeat this exact expression for the index to apply
+CREATE INDEX IF NOT EXISTS asset_description_fts_idx ON asset USING gin (to_tsvector('english', coalesce(description, '')));
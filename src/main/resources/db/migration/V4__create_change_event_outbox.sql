@@ -0,0 +1,15 @@
+-- Transactional outbox behind GET /api/v1/changes. Writers insert rows with position NULL in the same
+-- transaction as the change; ChangeEventRepository.publishPending later numbers committed rows in id order,
+-- so a consumer reading position > token never skips a row that committed late.
+CREATE TABLE change_event (
+    id          bigserial PRIMARY KEY,
+    position    bigint,
+    type        varchar(32) NOT NULL,
+    asset_id    bigint,
+    group_id    bigint,
+    occurred_at timestamptz NOT NULL DEFAULT now()
+);
+-- the feed: position > ? ORDER BY position
+CREATE UNIQUE INDEX change_event_position_idx ON change_event (position);
+-- the relay's backlog stays small, so this index does too
+CREATE INDEX change_event_pending_idx ON change_event (id) WHERE position IS NULL;
@@ -0,0 +1,19 @@
+-- Groups form a forest (building -> floor -> zone). parent_id is the tree itself; group_closure holds every
+-- (ancestor, descendant) pair with depth >= 1, so "all assets under X" is one indexed join rather than a
+-- recursive walk. A group is not paired with itself, so groups inserted without going through GroupService
+-- still answer transitive queries with their own members.
+ALTER TABLE groups ADD COLUMN parent_id bigint REFERENCES groups ON DELETE SET NULL;
+CREATE INDEX groups_parent_id_idx ON groups (parent_id);
+
+CREATE TABLE group_closure (
+    ancestor_id   bigint  NOT NULL REFERENCES groups ON DELETE CASCADE,
+    descendant_id bigint  NOT NULL REFERENCES groups ON DELETE CASCADE,
+    depth         integer NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+-- a group's ancestors: cycle checks and re-linking a subtree when it moves
+CREATE INDEX group_closure_descendant_id_idx ON group_closure (descendant_id, ancestor_id);
+
+-- name-ordered listings of a large subtree walk this and keep the assets in the subtree, instead of sorting
+-- every member; see GroupRepositoryCustomImpl.findSubtreeAssetPage
+CREATE INDEX asset_name_id_idx ON asset (name, id);
@@ -0,0 +1,118 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.BatchAssetCommand;
+import com.example.kontaktiotask.model.command.CreateAssetCommand;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AssetBatchControllerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    void shouldCreateAssetsInBatch() throws Exception {
+        //given
+        List<CreateAssetCommand> create = IntStream.range(0, 1200)
+                .mapToObj(i -> new CreateAssetCommand("Asset " + i, "Type", null))
+                .toList();
+        String jsonPayload = objectMapper.writeValueAsString(new BatchAssetCommand(create, null, null));
+
+        //when
+        mockMvc.perform(post("/api/v1/assets:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.create", hasSize(1200)))
+                .andExpect(jsonPath("$.create[1199].status").value("201"));
+
+        //then
+        assertEquals(1200, assetRepository.count());
+    }
+
+    @Test
+    void shouldNotReuseIdsAllocatedByHibernate() throws Exception {
+        //given
+        Asset before = assetRepository.saveAndFlush(Asset.builder().name("Before").type("Type").build());
+        List<CreateAssetCommand> create = IntStream.range(0, 120)
+                .mapToObj(i -> new CreateAssetCommand("Asset " + i, "Type", null))
+                .toList();
+
+        //when
+        mockMvc.perform(post("/api/v1/assets:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchAssetCommand(create, null, null))))
+                .andExpect(status().isOk());
+        Asset after = assetRepository.saveAndFlush(Asset.builder().name("After").type("Type").build());
+
+        //then
+        assertEquals(122, assetRepository.count());
+        assertEquals("Before", assetRepository.findById(before.getId()).orElseThrow().getName());
+        assertEquals("After", assetRepository.findById(after.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void shouldUpdateAndDeleteAssetsInBatch() throws Exception {
+        //given
+        Asset toUpdate = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type").build());
+        Asset toDelete = assetRepository.saveAndFlush(Asset.builder().name("Asset 2").type("Type").build());
+        Group group = groupRepository.saveAndFlush(Group.builder().name("Group").assets(Set.of(toDelete)).build());
+        BatchAssetCommand command = new BatchAssetCommand(null, List.of(
+                new BatchAssetCommand.Update(toUpdate.getId(), "Updated", "Type", null, toUpdate.getVersion()),
+                new BatchAssetCommand.Update(toUpdate.getId(), "Stale", "Type", null, toUpdate.getVersion()),
+                new BatchAssetCommand.Update(9999L, "Missing", "Type", null, 0)),
+                List.of(toDelete.getId(), 9999L));
+
+        //when
+        mockMvc.perform(post("/api/v1/assets:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.update[0].status").value("200"))
+                .andExpect(jsonPath("$.update[1].status").value("409"))
+                .andExpect(jsonPath("$.update[2].status").value("404"))
+                .andExpect(jsonPath("$.delete[0].status").value("204"))
+                .andExpect(jsonPath("$.delete[1].status").value("404"));
+
+        //then
+        Asset updatedAsset = assetRepository.findById(toUpdate.getId()).orElseThrow();
+        assertEquals("Updated", updatedAsset.getName());
+        assertEquals(1, updatedAsset.getVersion());
+        assertTrue(assetRepository.findById(toDelete.getId()).isEmpty());
+        assertTrue(groupRepository.findByIdWithAssets(group.getId()).orElseThrow().getAssets().isEmpty());
+    }
+}
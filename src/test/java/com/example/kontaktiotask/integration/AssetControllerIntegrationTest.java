@@ -1,24 +1,36 @@
 package com.example.kontaktiotask.integration;
 
 import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
 import com.example.kontaktiotask.model.command.CreateAssetCommand;
 import com.example.kontaktiotask.model.command.UpdateAssetCommand;
+import com.example.kontaktiotask.model.dto.AssetDTO;
 import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 public class AssetControllerIntegrationTest extends BaseIntegrationTest {
 
@@ -28,6 +40,9 @@ public class AssetControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private AssetRepository assetRepository;
 
+    @Autowired
+    private GroupRepository groupRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -36,6 +51,7 @@ public class AssetControllerIntegrationTest extends BaseIntegrationTest {
 
     @BeforeEach
     void setup() {
+        groupRepository.deleteAll();
         assetRepository.deleteAll();
 
         asset1 = Asset.builder().name("Asset 1").type("Type 1").description("Description 1").build();
@@ -60,6 +76,136 @@ public class AssetControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[1].name").value("Asset 2"));
     }
 
+    @Test
+    void shouldPaginateAssetsWithCursor() throws Exception {
+        //given
+        assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+
+        //when
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/assets").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Asset 1"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+                .andReturn();
+        String nextLink = firstPage.getResponse().getHeader(HttpHeaders.LINK);
+        String nextUri = nextLink.substring(nextLink.indexOf('<') + 1, nextLink.indexOf('>'));
+
+        //then
+        mockMvc.perform(get(nextUri))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Asset 2"))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    void shouldAnswerConditionalGetOfAssetFromItsVersion() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+
+        //when
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(put("/api/v1/assets/" + savedAsset.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateAssetCommand("Renamed", "Type 1", null, 0))))
+                .andExpect(status().isOk());
+
+        //then
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""))
+                .andExpect(jsonPath("$.name").value("Renamed"));
+    }
+
+    @Test
+    void shouldAnswerConditionalGetOfAssetPageUntilPageChanges() throws Exception {
+        //given
+        List<Asset> saved = assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+        String eTag = mockMvc.perform(get("/api/v1/assets"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        mockMvc.perform(get("/api/v1/assets").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(delete("/api/v1/assets/" + saved.get(1).getId()))
+                .andExpect(status().isNoContent());
+
+        //then
+        mockMvc.perform(get("/api/v1/assets").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void shouldReturn404ForConditionalGetOfMissingAsset() throws Exception {
+        //when
+        mockMvc.perform(get("/api/v1/assets/9999").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturn400ForInvalidCursor() throws Exception {
+        //when
+        mockMvc.perform(get("/api/v1/assets").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamAllAssetsAsNdjson() throws Exception {
+        //given
+        assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/v1/assets").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("Asset 1", objectMapper.readTree(lines.get(0)).get("name").asText());
+        assertEquals("Asset 2", objectMapper.readTree(lines.get(1)).get("name").asText());
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormatsForAssetList() throws Exception {
+        //given
+        assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+        MediaType cbor = MediaType.valueOf("application/cbor");
+
+        //when
+        byte[] smileBody = mockMvc.perform(get("/api/v1/assets").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cborBody = mockMvc.perform(get("/api/v1/assets").accept(cbor))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(cbor))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //then
+        List<AssetDTO> expected = List.of(AssetDTO.fromEntity(asset1), AssetDTO.fromEntity(asset2));
+        assertEquals(expected, new SmileMapper().readValue(smileBody, new TypeReference<List<AssetDTO>>() {
+        }));
+        assertEquals(expected, new CBORMapper().readValue(cborBody, new TypeReference<List<AssetDTO>>() {
+        }));
+        mockMvc.perform(get("/api/v1/assets"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     void shouldReturnAssetById() throws Exception {
         //given
@@ -75,6 +221,33 @@ public class AssetControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.description").value("Description 1"));
     }
 
+    @Test
+    void shouldServeCachedAssetUntilUpdatedThroughService() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()))
+                .andExpect(jsonPath("$.name").value("Asset 1"));
+        savedAsset.setName("Changed behind the cache");
+        savedAsset = assetRepository.saveAndFlush(savedAsset);
+
+        //when
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()))
+                .andExpect(jsonPath("$.name").value("Asset 1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""));
+        UpdateAssetCommand updateCommand = new UpdateAssetCommand("Updated Name", "Updated Type", "Updated Description", savedAsset.getVersion());
+        mockMvc.perform(put("/api/v1/assets/" + savedAsset.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateCommand)))
+                .andExpect(status().isOk());
+
+        //then
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()))
+                .andExpect(jsonPath("$.name").value("Updated Name"));
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:assets", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(greaterThanOrEqualTo(1.0)));
+    }
+
     @Test
     void shouldReturn404WhenAssetNotFound() throws Exception {
         //when
@@ -124,6 +297,54 @@ public class AssetControllerIntegrationTest extends BaseIntegrationTest {
         assertTrue(assetRepository.findById(savedAsset.getId()).isEmpty());
     }
 
+    @Test
+    void shouldDeleteAssetTogetherWithItsMemberships() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        Asset otherAsset = assetRepository.saveAndFlush(asset2);
+        List<Group> groups = groupRepository.saveAllAndFlush(List.of(
+                Group.builder().name("Group 1").assets(Set.of(savedAsset, otherAsset)).build(),
+                Group.builder().name("Group 2").assets(Set.of(savedAsset)).build()));
+
+        //when
+        mockMvc.perform(delete("/api/v1/assets/" + savedAsset.getId()))
+                .andExpect(status().isNoContent());
+
+        //then
+        assertTrue(assetRepository.findById(savedAsset.getId()).isEmpty());
+        assertEquals(Set.of(otherAsset.getId()), groupRepository.findByIdWithAssets(groups.get(0).getId()).orElseThrow()
+                .getAssets().stream().map(Asset::getId).collect(Collectors.toSet()));
+        assertTrue(groupRepository.findByIdWithAssets(groups.get(1).getId()).orElseThrow().getAssets().isEmpty());
+    }
+
+    @Test
+    void shouldDeleteAssetsInBulk() throws Exception {
+        //given
+        List<Asset> savedAssets = assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+        groupRepository.saveAndFlush(Group.builder().name("Group 1").assets(Set.copyOf(savedAssets)).build());
+        String jsonPayload = objectMapper.writeValueAsString(new AssetIdsCommand(
+                List.of(savedAssets.get(0).getId(), savedAssets.get(1).getId(), 9999L)));
+
+        //when
+        mockMvc.perform(delete("/api/v1/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        //then
+        assertEquals(0, assetRepository.count());
+    }
+
+    @Test
+    void shouldRejectEmptyBulkDelete() throws Exception {
+        mockMvc.perform(delete("/api/v1/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assetIds\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturn404WhenDeletingNonExistingAsset() throws Exception {
         //when
@@ -162,4 +383,55 @@ public class AssetControllerIntegrationTest extends BaseIntegrationTest {
                         .content(jsonPayload))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void shouldReturn409WhenUpdatingWithStaleVersion() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        UpdateAssetCommand updateCommand = new UpdateAssetCommand("Updated Name", "Updated Type", "Updated Description", savedAsset.getVersion() + 1);
+
+        //when
+        mockMvc.perform(put("/api/v1/assets/" + savedAsset.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateCommand)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("409"));
+
+        //then
+        assertEquals("Asset 1", assetRepository.findById(savedAsset.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void shouldUpdateAssetWithPessimisticLock() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        UpdateAssetCommand updateCommand = new UpdateAssetCommand("Updated Name", "Updated Type", "Updated Description", 42);
+
+        //when
+        mockMvc.perform(put("/api/v1/assets/" + savedAsset.getId())
+                        .param("lock", "PESSIMISTIC")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateCommand)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Updated Name"));
+
+        //then
+        Asset updatedAsset = assetRepository.findById(savedAsset.getId()).orElseThrow();
+        assertEquals("Updated Name", updatedAsset.getName());
+        assertEquals(1, updatedAsset.getVersion());
+    }
+
+    @Test
+    void shouldReturn400ForUnknownLockMode() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        UpdateAssetCommand updateCommand = new UpdateAssetCommand("Updated Name", "Updated Type", "Updated Description", 0);
+
+        //when
+        mockMvc.perform(put("/api/v1/assets/" + savedAsset.getId())
+                        .param("lock", "NONE")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateCommand)))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,138 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class AssetSearchIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+        assetRepository.saveAllAndFlush(List.of(
+                Asset.builder().name("Beacon 1").type("BEACON").description("Mounted at the warehouse entrance").build(),
+                Asset.builder().name("Beacon 2").type("BEACON").description("Tracks forklifts in the loading bay").build(),
+                Asset.builder().name("Badge 1").type("BADGE").description("Worn by the night shift").build(),
+                Asset.builder().name("Bea_con").type("GATEWAY").description(null).build()));
+    }
+
+    @Test
+    void shouldFilterByType() throws Exception {
+        mockMvc.perform(get("/api/v1/assets").param("type", "BEACON"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Beacon 1"))
+                .andExpect(jsonPath("$[1].name").value("Beacon 2"));
+    }
+
+    @Test
+    void shouldFilterByNamePrefixTreatingWildcardsLiterally() throws Exception {
+        mockMvc.perform(get("/api/v1/assets").param("namePrefix", "Bea"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+
+        mockMvc.perform(get("/api/v1/assets").param("namePrefix", "Bea_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Bea_con"));
+    }
+
+    @Test
+    void shouldSearchDescriptionWords() throws Exception {
+        mockMvc.perform(get("/api/v1/assets").param("q", "forklift"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Beacon 2"));
+    }
+
+    @Test
+    void shouldCombineFiltersAndKeepThemInNextLink() throws Exception {
+        //when
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/assets?type=BEACON&namePrefix=Beacon&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Beacon 1"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("type=BEACON")))
+                .andReturn();
+
+        //then
+        String nextLink = firstPage.getResponse().getHeader(HttpHeaders.LINK);
+        String nextUri = nextLink.substring(nextLink.indexOf('<') + 1, nextLink.indexOf('>'));
+        mockMvc.perform(get(nextUri))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Beacon 2"))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    void shouldAnswerEachFilterFromItsIndex() throws Exception {
+        //given
+        jdbcTemplate.batchUpdate("INSERT INTO asset (id, name, type, description, version) VALUES (?, ?, ?, ?, 0)",
+                IntStream.range(0, 2000).boxed().toList(), 500, (statement, i) -> {
+                    statement.setLong(1, 1_000_000L + i);
+                    statement.setString(2, "Tag " + i);
+                    statement.setString(3, "TAG-" + (i % 100));
+                    statement.setString(4, "Sensor number " + i);
+                });
+        jdbcTemplate.execute("ANALYZE asset");
+
+        //then
+        assertTrue(searchPlan("type", "BEACON").contains("asset_type_idx"));
+        // under the C collation the plain (name, id) index serves prefixes as well; under any other only this one can
+        assertTrue(searchPlan("namePrefix", "Beacon").matches("(?s).*asset_name_(prefix|id)_idx.*"));
+        assertTrue(searchPlan("q", "forklift").contains("asset_description_fts_idx"));
+    }
+
+    /**
+     * Plans the statement {@code search} issued for a first page filtered by one parameter, with its own
+     * arguments and the planner settings left at their defaults.
+     */
+    private String searchPlan(String filter, String value) throws Exception {
+        clearInvocations(jdbcTemplate);
+        mockMvc.perform(get("/api/v1/assets").param(filter, value)).andExpect(status().isOk());
+        Object[] query = mockingDetails(jdbcTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("query"))
+                .map(Invocation::getRawArguments)
+                .filter(arguments -> arguments[0] instanceof String sql && sql.startsWith("SELECT id, name"))
+                .findFirst()
+                .orElseThrow();
+        return jdbcTemplate.queryForList("EXPLAIN " + query[0], String.class, (Object[]) query[2])
+                .stream()
+                .collect(Collectors.joining("\n"));
+    }
+}
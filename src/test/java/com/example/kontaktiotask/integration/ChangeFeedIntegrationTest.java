@@ -0,0 +1,129 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.command.CreateAssetCommand;
+import com.example.kontaktiotask.model.command.CreateGroupCommand;
+import com.example.kontaktiotask.model.dto.ChangeEventDTO;
+import com.example.kontaktiotask.model.dto.ChangeFeedDTO;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ChangeFeedIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldPublishMutationsInOrderFromHead() throws Exception {
+        //given
+        String head = read(mockMvc.perform(get("/api/v1/changes/head"))
+                .andExpect(status().isOk())
+                .andReturn()).next();
+
+        //when
+        mockMvc.perform(post("/api/v1/groups")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateGroupCommand("Feed Group", null, null))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateAssetCommand("Feed Asset", "Type 1", null))))
+                .andExpect(status().isCreated());
+        long groupId = groupRepository.findAll().stream().filter(g -> g.getName().equals("Feed Group")).findFirst().orElseThrow().getId();
+        long assetId = assetRepository.findAll().stream().filter(a -> a.getName().equals("Feed Asset")).findFirst().orElseThrow().getId();
+        mockMvc.perform(post("/api/v1/groups/" + groupId + "/assets/" + assetId))
+                .andExpect(status().isCreated());
+        mockMvc.perform(delete("/api/v1/assets/" + assetId))
+                .andExpect(status().isNoContent());
+
+        //then
+        // events another test left unpublished may still be numbered after head, so only this test's are kept
+        List<ChangeEventDTO> events = new ArrayList<>();
+        String token = head;
+        for (int attempt = 0; attempt < 10 && events.size() < 4; attempt++) {
+            ChangeFeedDTO feed = poll("/api/v1/changes?waitSeconds=5&after=" + token);
+            feed.events().stream()
+                    .filter(event -> Long.valueOf(groupId).equals(event.groupId()) || Long.valueOf(assetId).equals(event.assetId()))
+                    .forEach(events::add);
+            token = feed.next();
+        }
+        assertEquals(List.of(ChangeType.GROUP_CREATED, ChangeType.ASSET_CREATED, ChangeType.GROUP_ASSET_ADDED, ChangeType.ASSET_DELETED),
+                events.stream().map(ChangeEventDTO::type).toList());
+        assertEquals(groupId, events.get(0).groupId());
+        assertEquals(assetId, events.get(2).assetId());
+        assertEquals(groupId, events.get(2).groupId());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i - 1).position() < events.get(i).position());
+        }
+        assertTrue(poll("/api/v1/changes?waitSeconds=0&after=" + token).events().isEmpty());
+    }
+
+    @Test
+    void shouldAnswerExpiredLongPollWithSameToken() throws Exception {
+        //given
+        String future = KeysetPage.encodeCursor(Long.MAX_VALUE - 1);
+
+        //when
+        MvcResult pending = mockMvc.perform(get("/api/v1/changes?waitSeconds=1&after=" + future))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // MockMvc has no container to time the request out, so fire the timeout the way Tomcat would
+        MockAsyncContext asyncContext = (MockAsyncContext) pending.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(null);
+        }
+        ChangeFeedDTO feed = read(mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn());
+
+        //then
+        assertTrue(feed.events().isEmpty());
+        assertEquals(future, feed.next());
+    }
+
+    @Test
+    void shouldReturn400ForInvalidLimit() throws Exception {
+        //when
+        mockMvc.perform(get("/api/v1/changes?limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ChangeFeedDTO poll(String uri) throws Exception {
+        MvcResult pending = mockMvc.perform(get(uri))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return read(mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    private ChangeFeedDTO read(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), ChangeFeedDTO.class);
+    }
+}
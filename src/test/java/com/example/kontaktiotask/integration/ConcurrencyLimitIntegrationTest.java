@@ -0,0 +1,57 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// a single permit, so a second request while the first is in flight is shed at once
+@TestPropertySource(properties = {
+        "app.concurrency-limit.max-concurrent-requests=1",
+        "app.concurrency-limit.acquire-timeout=50ms"
+})
+public class ConcurrencyLimitIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @BeforeEach
+    void setup() {
+        assetRepository.deleteAll();
+        assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type 1").build());
+    }
+
+    @Test
+    void shouldHoldPermitUntilAssetStreamCompletes() throws Exception {
+        //given
+        MvcResult stream = mockMvc.perform(get("/api/v1/assets").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when
+        mockMvc.perform(get("/api/v1/assets"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(asyncDispatch(stream))
+                .andExpect(status().isOk());
+
+        //then
+        mockMvc.perform(get("/api/v1/assets"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetSortOrder;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.example.kontaktiotask.service.AssetService;
+import com.example.kontaktiotask.service.GroupService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// a suspended read pool stands in for a lagging replica: anything that still reads from it blocks
+@TestPropertySource(properties = "app.datasource.read.hikari.allow-pool-suspension=true")
+public class DataSourceRoutingIntegrationTest extends BaseIntegrationTest {
+
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private HikariDataSource readDataSource;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReadPool() {
+        //given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        //when
+        String jdbcPool = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+        String jpaPool = transactionTemplate.execute(status -> (String) entityManager.createNativeQuery(APPLICATION_NAME).getSingleResult());
+
+        //then
+        assertEquals("kontakt-io-task-read", jdbcPool);
+        assertEquals("kontakt-io-task-read", jpaPool);
+    }
+
+    @Test
+    void shouldRouteReadWriteTransactionsToWritePool() {
+        //given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //when
+        String jdbcPool = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+        String jpaPool = transactionTemplate.execute(status -> (String) entityManager.createNativeQuery(APPLICATION_NAME).getSingleResult());
+
+        //then
+        assertEquals("kontakt-io-task-write", jdbcPool);
+        assertEquals("kontakt-io-task-write", jpaPool);
+    }
+
+    @Test
+    void shouldFillCachesAndCheckGroupsOnWritePool() {
+        //given
+        Asset asset = assetRepository.saveAndFlush(Asset.builder().name("Beacon").type("Beacon").build());
+        Group group = groupRepository.saveAndFlush(Group.builder().name("Zone").description("Zone").build());
+        readDataSource.getHikariPoolMXBean().suspendPool();
+        AssetRow row;
+        try {
+            //when
+            row = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                groupService.requireExists(group.getId());
+                groupService.findGroupAssets(group.getId(), AssetSortOrder.ID_ASC, null, 10);
+                groupService.findSubtreeAssets(group.getId(), AssetSortOrder.ID_ASC, null, 10);
+                groupService.countSubtreeAssets(group.getId());
+                return assetService.findById(asset.getId());
+            });
+        } finally {
+            readDataSource.getHikariPoolMXBean().resumePool();
+        }
+
+        //then
+        assertEquals("Beacon", row.name());
+    }
+}
@@ -1,22 +1,41 @@
 package com.example.kontaktiotask.integration;
 
+import com.example.kontaktiotask.config.CacheConfig;
 import com.example.kontaktiotask.model.Asset;
 import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
 import com.example.kontaktiotask.model.command.CreateGroupCommand;
+import com.example.kontaktiotask.model.command.MoveGroupCommand;
+import com.example.kontaktiotask.model.command.UpdateAssetCommand;
 import com.example.kontaktiotask.repository.AssetRepository;
 import com.example.kontaktiotask.repository.GroupRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,6 +53,15 @@ public class GroupControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private Group group1;
     private Asset asset1;
     private CreateGroupCommand createGroupCommand;
@@ -46,7 +74,7 @@ public class GroupControllerIntegrationTest extends BaseIntegrationTest {
         group1 = Group.builder().name("Test Group 1").description("Description 1").build();
         asset1 = Asset.builder().name("Test Asset 1").type("Type 1").build();
 
-        createGroupCommand = new CreateGroupCommand("New Group", "New Group Description");
+        createGroupCommand = new CreateGroupCommand("New Group", "New Group Description", null);
     }
 
     @Test
@@ -84,7 +112,7 @@ public class GroupControllerIntegrationTest extends BaseIntegrationTest {
     @Test
     void shouldFailWhenCreatingGroupWithoutName() throws Exception {
         //given
-        CreateGroupCommand invalidCommand = new CreateGroupCommand("", "Group without name");
+        CreateGroupCommand invalidCommand = new CreateGroupCommand("", "Group without name", null);
         String jsonPayload = objectMapper.writeValueAsString(invalidCommand);
 
         //when
@@ -108,6 +136,147 @@ public class GroupControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void shouldReadGroupsAndGroupAssetsWithoutLoadingEntities() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        group1.setAssets(Set.of(savedAsset));
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        mockMvc.perform(get("/api/v1/groups"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Group 1"));
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Asset 1"));
+
+        //then
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void shouldPaginateGroupAssetsByNameDescending() throws Exception {
+        //given
+        List<Asset> assets = assetRepository.saveAllAndFlush(List.of(
+                Asset.builder().name("b").type("Type 1").build(),
+                Asset.builder().name("a").type("Type 1").build(),
+                Asset.builder().name("b").type("Type 2").build()));
+        group1.setAssets(Set.copyOf(assets));
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+
+        //when
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets?sort=NAME_DESC&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].type").value("Type 2"))
+                .andExpect(jsonPath("$[1].type").value("Type 1"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("sort=NAME_DESC")))
+                .andReturn();
+        String nextLink = firstPage.getResponse().getHeader(HttpHeaders.LINK);
+        String nextUri = nextLink.substring(nextLink.indexOf('<') + 1, nextLink.indexOf('>'));
+
+        //then
+        mockMvc.perform(get(nextUri))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("a"))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    void shouldChangeGroupAssetsETagWhenMembersChange() throws Exception {
+        //given
+        List<Asset> assets = assetRepository.saveAllAndFlush(List.of(asset1, Asset.builder().name("Test Asset 2").type("Type 1").build()));
+        group1.setAssets(Set.copyOf(assets));
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+        String uri = "/api/v1/groups/" + savedGroup.getId() + "/assets";
+        String eTag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        //when
+        mockMvc.perform(put("/api/v1/assets/" + assets.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateAssetCommand("Renamed", "Type 1", null, 0))))
+                .andExpect(status().isOk());
+        String updatedETag = mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Renamed"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(delete("/api/v1/assets/" + assets.get(1).getId()))
+                .andExpect(status().isNoContent());
+
+        //then
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, updatedETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/api/v1/groups/9999/assets"))
+                .andExpect(status().isNotFound());
+        // the tag follows the members themselves; writing an asset neither locks nor bumps its groups
+        assertEquals(savedGroup.getVersion(), groupRepository.findById(savedGroup.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldAnswerConditionalGetOfGroupsUntilGroupIsCreated() throws Exception {
+        //given
+        groupRepository.saveAndFlush(group1);
+        String eTag = mockMvc.perform(get("/api/v1/groups"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        mockMvc.perform(get("/api/v1/groups").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(post("/api/v1/groups")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createGroupCommand)))
+                .andExpect(status().isCreated());
+
+        //then
+        mockMvc.perform(get("/api/v1/groups").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void shouldReturn400ForInvalidGroupAssetsSortOrLimit() throws Exception {
+        //given
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+
+        //then
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets?sort=COLOUR"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets?limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldBatchLoadLazyAssetCollections() {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        Group group2 = Group.builder().name("Test Group 2").assets(Set.of(savedAsset)).build();
+        group1.setAssets(Set.of(savedAsset));
+        groupRepository.saveAllAndFlush(List.of(group1, group2));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        int members = transactionTemplate.execute(status -> groupRepository.findAll().stream()
+                .mapToInt(group -> group.getAssets().size())
+                .sum());
+
+        //then
+        assertEquals(2, members);
+        assertEquals(2, statistics.getCollectionLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
     @Test
     void shouldAddAssetToGroup() throws Exception {
         //given
@@ -123,6 +292,95 @@ public class GroupControllerIntegrationTest extends BaseIntegrationTest {
         assertTrue(updatedGroup.getAssets().contains(savedAsset));
     }
 
+    @Test
+    void shouldEvictCachedGroupAssetsWhenMembershipChanges() throws Exception {
+        //given
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets"))
+                .andExpect(jsonPath("$").isEmpty());
+
+        //when
+        mockMvc.perform(post("/api/v1/groups/" + savedGroup.getId() + "/assets/" + savedAsset.getId()))
+                .andExpect(status().isCreated());
+
+        //then
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Test Asset 1"));
+    }
+
+    @Test
+    void shouldKeepCachedAssetsOfUnrelatedGroupsWhenMembershipChanges() throws Exception {
+        //given
+        long building = createGroup("Building", null);
+        long floor = createGroup("Floor", building);
+        long otherBuilding = createGroup("Other building", null);
+        Asset asset = assetRepository.saveAndFlush(asset1);
+        mockMvc.perform(get("/api/v1/groups/" + floor + "/assets")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets").param("transitive", "true"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/groups/" + otherBuilding + "/assets")).andExpect(status().isOk());
+
+        //when
+        mockMvc.perform(post("/api/v1/groups/" + floor + "/assets/" + asset.getId()))
+                .andExpect(status().isCreated());
+
+        //then
+        Set<Object> cachedGroupIds = cachedGroupAssetsGroupIds();
+        assertTrue(cachedGroupIds.contains(otherBuilding));
+        assertFalse(cachedGroupIds.contains(floor));
+        assertFalse(cachedGroupIds.contains(building));
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets").param("transitive", "true"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void shouldReturn409IfAddingAssetTwice() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(asset1);
+        group1.setAssets(Set.of(savedAsset));
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+
+        //when
+        mockMvc.perform(post("/api/v1/groups/" + savedGroup.getId() + "/assets/" + savedAsset.getId()))
+                .andExpect(status().isConflict());
+
+        //then
+        assertEquals(savedGroup.getVersion(), groupRepository.findById(savedGroup.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldCountGroupAssetsAndCheckMembership() throws Exception {
+        //given
+        Asset member = assetRepository.saveAndFlush(asset1);
+        Asset outsider = assetRepository.saveAndFlush(Asset.builder().name("Test Asset 2").type("Type 2").build());
+        group1.setAssets(Set.of(member));
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+        Group emptyGroup = groupRepository.saveAndFlush(Group.builder().name("Empty Group").build());
+
+        //then
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+        mockMvc.perform(get("/api/v1/groups/" + emptyGroup.getId() + "/assets/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0));
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets/" + member.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/groups/" + savedGroup.getId() + "/assets/" + outsider.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturn404WhenCountingOrCheckingMissingGroup() throws Exception {
+        mockMvc.perform(get("/api/v1/groups/9999/assets/count"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/groups/9999/assets/1"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Group with id 9999 not found"));
+    }
+
     @Test
     void shouldReturn404IfAddingAssetToNonExistingGroup() throws Exception {
         //given
@@ -180,4 +438,139 @@ public class GroupControllerIntegrationTest extends BaseIntegrationTest {
         mockMvc.perform(delete("/api/v1/groups/" + savedGroup.getId() + "/assets/9999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void shouldAddAndRemoveAssetsInBulk() throws Exception {
+        //given
+        Group savedGroup = groupRepository.saveAndFlush(group1);
+        Asset savedAsset1 = assetRepository.saveAndFlush(asset1);
+        Asset savedAsset2 = assetRepository.saveAndFlush(Asset.builder().name("Test Asset 2").type("Type 2").build());
+        String addPayload = objectMapper.writeValueAsString(
+                new AssetIdsCommand(List.of(savedAsset1.getId(), savedAsset2.getId(), 9999L)));
+
+        //when
+        mockMvc.perform(post("/api/v1/groups/" + savedGroup.getId() + "/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(addPayload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.affected").value(2));
+        mockMvc.perform(post("/api/v1/groups/" + savedGroup.getId() + "/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(addPayload))
+                .andExpect(jsonPath("$.affected").value(0));
+        mockMvc.perform(delete("/api/v1/groups/" + savedGroup.getId() + "/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AssetIdsCommand(List.of(savedAsset1.getId())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        //then
+        Group updatedGroup = groupRepository.findByIdWithAssets(savedGroup.getId()).orElseThrow();
+        assertEquals(Set.of(savedAsset2), updatedGroup.getAssets());
+        assertEquals(savedGroup.getVersion() + 2, updatedGroup.getVersion());
+    }
+
+    @Test
+    void shouldReturn404IfBulkAddingToNonExistingGroup() throws Exception {
+        //when
+        mockMvc.perform(post("/api/v1/groups/9999/assets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AssetIdsCommand(List.of(1L)))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldListAndCountAssetsUnderNestedGroups() throws Exception {
+        //given
+        long building = createGroup("Building", null);
+        long floor = createGroup("Floor", building);
+        long zone = createGroup("Zone", floor);
+        long otherBuilding = createGroup("Other building", null);
+        Asset inZone = assetRepository.saveAndFlush(Asset.builder().name("b").type("Beacon").build());
+        Asset inBoth = assetRepository.saveAndFlush(Asset.builder().name("a").type("Beacon").build());
+        Asset elsewhere = assetRepository.saveAndFlush(Asset.builder().name("c").type("Beacon").build());
+        groupRepository.addAssets(zone, List.of(inZone.getId(), inBoth.getId()));
+        groupRepository.addAssets(floor, List.of(inBoth.getId()));
+        groupRepository.addAssets(otherBuilding, List.of(elsewhere.getId()));
+
+        //when
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets").param("transitive", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("b"))
+                .andExpect(jsonPath("$[1].name").value("a"));
+
+        //then
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets")
+                        .param("transitive", "true").param("sort", "NAME_ASC").param("limit", "1"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("a"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets").param("transitive", "true").param("sort", "ID_DESC"))
+                .andExpect(jsonPath("$[0].name").value("a"));
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets"))
+                .andExpect(jsonPath("$").isEmpty());
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets/count").param("transitive", "true"))
+                .andExpect(jsonPath("$.count").value(2));
+        mockMvc.perform(get("/api/v1/groups/" + floor + "/assets/count").param("transitive", "true"))
+                .andExpect(jsonPath("$.count").value(2));
+        mockMvc.perform(get("/api/v1/groups/" + (otherBuilding + 1000) + "/assets").param("transitive", "true"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldMoveSubtreeAndRejectCycles() throws Exception {
+        //given
+        long building = createGroup("Building", null);
+        long floor = createGroup("Floor", building);
+        long zone = createGroup("Zone", floor);
+        long otherBuilding = createGroup("Other building", null);
+        Asset asset = assetRepository.saveAndFlush(Asset.builder().name("Beacon").type("Beacon").build());
+        groupRepository.addAssets(zone, List.of(asset.getId()));
+        String eTag = mockMvc.perform(get("/api/v1/groups/" + building + "/assets").param("transitive", "true"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        mockMvc.perform(put("/api/v1/groups/" + floor + "/parent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MoveGroupCommand(otherBuilding))))
+                .andExpect(status().isNoContent());
+
+        //then
+        mockMvc.perform(get("/api/v1/groups/" + building + "/assets").param("transitive", "true")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        mockMvc.perform(get("/api/v1/groups/" + otherBuilding + "/assets/count").param("transitive", "true"))
+                .andExpect(jsonPath("$.count").value(1));
+        mockMvc.perform(put("/api/v1/groups/" + otherBuilding + "/parent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MoveGroupCommand(zone))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/v1/groups/" + floor + "/parent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MoveGroupCommand(null))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/groups/" + otherBuilding + "/assets/count").param("transitive", "true"))
+                .andExpect(jsonPath("$.count").value(0));
+        assertNull(groupRepository.findById(floor).orElseThrow().getParentId());
+    }
+
+    private long createGroup(String name, Long parentId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/groups")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateGroupCommand(name, null, parentId))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private Set<Object> cachedGroupAssetsGroupIds() {
+        Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(CacheConfig.GROUP_ASSETS).getNativeCache();
+        return cache.asMap().keySet().stream()
+                .map(key -> ((List<?>) key).get(0))
+                .collect(Collectors.toSet());
+    }
 }
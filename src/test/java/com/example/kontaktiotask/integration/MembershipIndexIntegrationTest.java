@@ -0,0 +1,104 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.example.kontaktiotask.service.ChangeFeedService;
+import com.example.kontaktiotask.service.MembershipIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MembershipIndexIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    private Group zoneA;
+    private Group zoneB;
+    private List<Asset> assets;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+
+        zoneA = groupRepository.saveAndFlush(Group.builder().name("Zone A").description("A").build());
+        zoneB = groupRepository.saveAndFlush(Group.builder().name("Zone B").description("B").build());
+        assets = assetRepository.saveAllAndFlush(List.of(
+                Asset.builder().name("Beacon 1").type("Beacon").build(),
+                Asset.builder().name("Beacon 2").type("Beacon").build()));
+        // rows written straight through the repositories bypass the change feed
+        membershipIndex.reload();
+    }
+
+    @Test
+    void shouldAnswerSetQueriesFromChangesOnTheFeed() throws Exception {
+        //given
+        long first = assets.get(0).getId();
+        long second = assets.get(1).getId();
+        mockMvc.perform(post("/api/v1/groups/" + zoneA.getId() + "/assets/" + first)).andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/groups/" + zoneA.getId() + "/assets/" + second)).andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/groups/" + zoneB.getId() + "/assets/" + second)).andExpect(status().isCreated());
+
+        //when
+        catchUp();
+
+        //then
+        mockMvc.perform(get("/api/v1/memberships/assets")
+                        .param("allOf", zoneA.getId() + "," + zoneB.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.assetIds[0]").value(second));
+        mockMvc.perform(get("/api/v1/memberships/assets")
+                        .param("allOf", String.valueOf(zoneA.getId()))
+                        .param("noneOf", String.valueOf(zoneB.getId())))
+                .andExpect(jsonPath("$.assetIds[0]").value(first))
+                .andExpect(jsonPath("$.total").value(1));
+        mockMvc.perform(get("/api/v1/memberships/assets/" + second + "/groups"))
+                .andExpect(jsonPath("$[0]").value(zoneA.getId()))
+                .andExpect(jsonPath("$[1]").value(zoneB.getId()));
+
+        mockMvc.perform(delete("/api/v1/assets/" + second)).andExpect(status().isNoContent());
+        catchUp();
+        mockMvc.perform(get("/api/v1/memberships/assets/" + second + "/groups"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void shouldReturn404ForUnknownGroupAnd400ForInvalidQuery() throws Exception {
+        mockMvc.perform(get("/api/v1/memberships/assets").param("anyOf", String.valueOf(zoneB.getId() + 1)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/memberships/assets").param("noneOf", String.valueOf(zoneA.getId())))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/memberships/assets").param("allOf", String.valueOf(zoneA.getId())).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void catchUp() {
+        changeFeedService.publishPending();
+        membershipIndex.refresh();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.example.kontaktiotask.service.MembershipWriteQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the scheduled flush is pushed out of the way so each test decides when the queue is flushed
+@TestPropertySource(properties = {
+        "app.membership-queue.enabled=true",
+        "app.membership-queue.flush-interval=PT1H",
+        "app.membership-queue.batch-size=2",
+        "app.membership-queue.max-pending=3"
+})
+public class MembershipWriteQueueIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private MembershipWriteQueue membershipWriteQueue;
+
+    private Group group;
+    private List<Asset> assets;
+
+    @BeforeEach
+    void setup() {
+        membershipWriteQueue.flush();
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+
+        group = groupRepository.saveAndFlush(Group.builder().name("Zone").description("Zone").build());
+        assets = assetRepository.saveAllAndFlush(List.of(
+                Asset.builder().name("Beacon 1").type("Beacon").build(),
+                Asset.builder().name("Beacon 2").type("Beacon").build(),
+                Asset.builder().name("Beacon 3").type("Beacon").build(),
+                Asset.builder().name("Beacon 4").type("Beacon").build()));
+    }
+
+    @Test
+    void shouldCoalesceQueuedChangesAndApplyThemOnFlush() throws Exception {
+        //given
+        String base = "/api/v1/groups/" + group.getId() + "/assets/";
+        int version = groupRepository.findById(group.getId()).orElseThrow().getVersion();
+        mockMvc.perform(post(base + assets.get(0).getId()).param("async", "true")).andExpect(status().isAccepted());
+        mockMvc.perform(delete(base + assets.get(0).getId()).param("async", "true")).andExpect(status().isAccepted());
+        mockMvc.perform(post(base + assets.get(0).getId()).param("async", "true")).andExpect(status().isAccepted());
+        mockMvc.perform(post(base + assets.get(1).getId()).param("async", "true")).andExpect(status().isAccepted());
+        mockMvc.perform(post(base + assets.get(2).getId()).param("async", "true")).andExpect(status().isAccepted());
+        mockMvc.perform(delete(base + assets.get(2).getId()).param("async", "true")).andExpect(status().isAccepted());
+        assertFalse(groupRepository.containsAsset(group.getId(), assets.get(0).getId()));
+
+        //when
+        membershipWriteQueue.flush();
+
+        //then
+        assertTrue(groupRepository.containsAsset(group.getId(), assets.get(0).getId()));
+        assertTrue(groupRepository.containsAsset(group.getId(), assets.get(1).getId()));
+        assertFalse(groupRepository.containsAsset(group.getId(), assets.get(2).getId()));
+        assertTrue(groupRepository.findById(group.getId()).orElseThrow().getVersion() > version);
+    }
+
+    @Test
+    void shouldReturn429WhenQueueIsFullButAcceptQueuedPairs() throws Exception {
+        //given
+        String base = "/api/v1/groups/" + group.getId() + "/assets/";
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post(base + assets.get(i).getId()).param("async", "true")).andExpect(status().isAccepted());
+        }
+
+        //when
+        mockMvc.perform(post(base + assets.get(3).getId()).param("async", "true"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.status").value("429"));
+
+        //then
+        mockMvc.perform(delete(base + assets.get(0).getId()).param("async", "true")).andExpect(status().isAccepted());
+        membershipWriteQueue.flush();
+        mockMvc.perform(post(base + assets.get(3).getId()).param("async", "true")).andExpect(status().isAccepted());
+    }
+
+    @Test
+    void shouldRejectQueuedChangeForMissingGroupAndKeepSynchronousDefault() throws Exception {
+        //when
+        mockMvc.perform(post("/api/v1/groups/" + (group.getId() + 1) + "/assets/" + assets.get(0).getId()).param("async", "true"))
+                .andExpect(status().isNotFound());
+
+        //then
+        mockMvc.perform(post("/api/v1/groups/" + group.getId() + "/assets/" + assets.get(0).getId()))
+                .andExpect(status().isCreated());
+        assertTrue(groupRepository.containsAsset(group.getId(), assets.get(0).getId()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.UpdateAssetCommand;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureObservability
+public class MetricsIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    void shouldExposeRequestRepositoryPoolAndHibernateMetrics() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type 1").build());
+        mockMvc.perform(get("/api/v1/assets/" + savedAsset.getId()))
+                .andExpect(status().isOk());
+
+        //when
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+
+        //then
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/v1/assets/{id}\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("repository=\"AssetRepository\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{pool=\"read\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{pool=\"write\"")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")));
+    }
+
+    @Test
+    void shouldCountNotFoundAndConflictOutcomes() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type 1").build());
+        UpdateAssetCommand staleUpdate = new UpdateAssetCommand("Updated Name", "Updated Type", null, savedAsset.getVersion() + 1);
+
+        //when
+        mockMvc.perform(get("/api/v1/assets/9999"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/v1/assets/" + savedAsset.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(staleUpdate)))
+                .andExpect(status().isConflict());
+
+        //then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("api_errors_total{exception=\"AssetServiceException\",status=\"404\"}")))
+                .andExpect(content().string(containsString("api_errors_total{exception=\"AssetServiceException\",status=\"409\"}")))
+                .andExpect(content().string(containsString("api_optimistic_lock_conflicts_total{exception=\"AssetServiceException\"}")));
+    }
+
+    @Test
+    void shouldNotCountOtherConflictsAsOptimisticLockConflicts() throws Exception {
+        //given
+        Asset savedAsset = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type 1").build());
+        Group savedGroup = groupRepository.saveAndFlush(Group.builder().name("Group 1").build());
+        String uri = "/api/v1/groups/" + savedGroup.getId() + "/assets/" + savedAsset.getId();
+        mockMvc.perform(post(uri))
+                .andExpect(status().isCreated());
+
+        //when
+        mockMvc.perform(post(uri))
+                .andExpect(status().isConflict());
+
+        //then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("api_errors_total{exception=\"GroupServiceException\",status=\"409\"}")))
+                .andExpect(content().string(not(containsString("api_optimistic_lock_conflicts_total{exception=\"GroupServiceException\"}"))));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ReactiveReadControllerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Asset asset1, asset2;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+
+        asset1 = Asset.builder().name("Asset 1").type("Type 1").description("Description 1").build();
+        asset2 = Asset.builder().name("Asset 2").type("Type 2").description("Description 2").build();
+    }
+
+    @Test
+    void shouldStreamAllAssets() throws Exception {
+        //given
+        assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+
+        //when
+        List<String> lines = streamLines(get("/api/v1/reactive/assets"));
+
+        //then
+        assertEquals(2, lines.size());
+        assertEquals("Asset 1", objectMapper.readTree(lines.get(0)).get("name").asText());
+        assertEquals("Asset 2", objectMapper.readTree(lines.get(1)).get("name").asText());
+    }
+
+    @Test
+    void shouldResumeStreamAfterCursor() throws Exception {
+        //given
+        List<Asset> saved = assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+        String cursor = KeysetPage.encodeCursor(saved.get(0).getId());
+
+        //when
+        List<String> lines = streamLines(get("/api/v1/reactive/assets").param("after", cursor));
+
+        //then
+        assertEquals(1, lines.size());
+        assertEquals("Asset 2", objectMapper.readTree(lines.get(0)).get("name").asText());
+    }
+
+    @Test
+    void shouldReturnAssetById() throws Exception {
+        //given
+        Asset saved = assetRepository.saveAndFlush(asset1);
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/assets/{id}", saved.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Asset 1"))
+                .andExpect(jsonPath("$.type").value("Type 1"));
+    }
+
+    @Test
+    void shouldReturnNotFoundForMissingAsset() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/assets/{id}", 999L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Asset with id 999 not found"));
+    }
+
+    @Test
+    void shouldStreamGroupAssets() throws Exception {
+        //given
+        List<Asset> assets = assetRepository.saveAllAndFlush(List.of(asset1, asset2));
+        Group group = Group.builder().name("Group").description("Description").build();
+        group.setAssets(Set.of(assets.get(1)));
+        group = groupRepository.saveAndFlush(group);
+
+        //when
+        List<String> lines = streamLines(get("/api/v1/reactive/groups/{id}/assets", group.getId()));
+
+        //then
+        assertEquals(1, lines.size());
+        assertEquals("Asset 2", objectMapper.readTree(lines.get(0)).get("name").asText());
+    }
+
+    private List<String> streamLines(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder.accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()
+                .lines().toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaMigrationIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    void shouldApplyEveryMigration() {
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void shouldIndexMembershipsFromBothSides() {
+        //given
+        List<Asset> assets = assetRepository.saveAll(IntStream.range(0, 200)
+                .mapToObj(i -> Asset.builder().name("Asset " + i).type("Type").build())
+                .toList());
+        List<Group> groups = groupRepository.saveAll(IntStream.range(0, 20)
+                .mapToObj(i -> Group.builder().name("Group " + i).build())
+                .toList());
+        groups.forEach(group -> groupRepository.addAssets(group.getId(), assets.stream().map(Asset::getId).toList()));
+        jdbcTemplate.execute("ANALYZE asset_group");
+
+        //then
+        assertTrue(plan("SELECT asset_id FROM asset_group WHERE group_id = ?").contains("asset_group_pkey"));
+        assertTrue(plan("SELECT group_id FROM asset_group WHERE asset_id = ?").contains("asset_group_asset_id_group_id_idx"));
+        assertTrue(plan("DELETE FROM asset_group WHERE asset_id = ?").contains("asset_group_asset_id_group_id_idx"));
+    }
+
+    private String plan(String sql) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, 1L)
+                    .stream()
+                    .collect(Collectors.joining("\n"));
+        });
+    }
+}
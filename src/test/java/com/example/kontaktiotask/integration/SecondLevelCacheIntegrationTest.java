@@ -0,0 +1,109 @@
+package com.example.kontaktiotask.integration;
+
+import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.GroupRepository;
+import com.example.kontaktiotask.service.GroupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("l2cache")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class SecondLevelCacheIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        groupRepository.deleteAll();
+        assetRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldServeRepeatedGroupAssetReadsWithoutSql() {
+        //given
+        Asset asset1 = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type").build());
+        Asset asset2 = assetRepository.saveAndFlush(Asset.builder().name("Asset 2").type("Type").build());
+        Group group = groupRepository.saveAndFlush(Group.builder().name("Group").assets(Set.of(asset1, asset2)).build());
+
+        //when
+        statistics.clear();
+        assertEquals(2, readGroupAssetNames(group.getId()).size());
+        long firstReadStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        assertEquals(2, readGroupAssetNames(group.getId()).size());
+        long secondReadStatements = statistics.getPrepareStatementCount();
+
+        //then
+        assertTrue(firstReadStatements > 0);
+        assertEquals(0, secondReadStatements);
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    void shouldServeRepeatedFindByIdWithoutSql() {
+        //given
+        Asset asset = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type").build());
+        transactionTemplate.execute(status -> assetRepository.findById(asset.getId()).orElseThrow());
+
+        //when
+        statistics.clear();
+        transactionTemplate.execute(status -> assetRepository.findById(asset.getId()).orElseThrow());
+
+        //then
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldSeeMembershipWrittenThroughJdbcAfterCaching() {
+        //given
+        Asset asset = assetRepository.saveAndFlush(Asset.builder().name("Asset 1").type("Type").build());
+        Group group = groupRepository.saveAndFlush(Group.builder().name("Group").build());
+        assertTrue(readGroupAssetNames(group.getId()).isEmpty());
+
+        //when
+        groupService.addAssets(group.getId(), new AssetIdsCommand(List.of(asset.getId())));
+
+        //then
+        assertEquals(List.of("Asset 1"), readGroupAssetNames(group.getId()));
+    }
+
+    private List<String> readGroupAssetNames(Long groupId) {
+        return transactionTemplate.execute(status -> groupRepository.findByIdWithAssets(groupId).orElseThrow()
+                .getAssets()
+                .stream()
+                .map(Asset::getName)
+                .toList());
+    }
+}
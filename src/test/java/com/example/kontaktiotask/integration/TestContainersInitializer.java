@@ -26,7 +26,11 @@ public class TestContainersInitializer implements
         TestPropertyValues.of(
                 "spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
                 "spring.datasource.username=" + postgreSQLContainer.getUsername(),
-                "spring.datasource.password=" + postgreSQLContainer.getPassword()
+                "spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                "spring.r2dbc.url=r2dbc:postgresql://" + postgreSQLContainer.getHost() + ":"
+                        + postgreSQLContainer.getFirstMappedPort() + "/" + postgreSQLContainer.getDatabaseName(),
+                "spring.r2dbc.username=" + postgreSQLContainer.getUsername(),
+                "spring.r2dbc.password=" + postgreSQLContainer.getPassword()
         ).applyTo(applicationContext.getEnvironment());
     }
 
@@ -1,25 +1,45 @@
 package com.example.kontaktiotask.unit;
 
 import com.example.kontaktiotask.exception.AssetServiceException;
+import com.example.kontaktiotask.exception.GlobalExceptionHandler;
 import com.example.kontaktiotask.model.Asset;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSearchCommand;
+import com.example.kontaktiotask.model.command.BatchAssetCommand;
 import com.example.kontaktiotask.model.command.CreateAssetCommand;
 import com.example.kontaktiotask.model.command.UpdateAssetCommand;
+import com.example.kontaktiotask.model.command.UpdateLockMode;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.BatchAssetResultDTO;
+import com.example.kontaktiotask.model.dto.DeleteResultDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
 import com.example.kontaktiotask.repository.AssetRepository;
+import com.example.kontaktiotask.repository.ChangeEventRepository;
 import com.example.kontaktiotask.service.AssetService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 class AssetServiceTest {
@@ -27,6 +47,15 @@ class AssetServiceTest {
     @Mock
     private AssetRepository assetRepository;
 
+    @Mock
+    private ChangeEventRepository changeEventRepository;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AssetService assetService;
 
@@ -68,57 +97,170 @@ class AssetServiceTest {
         assertEquals("New Asset", capturedAsset.getName());
         assertEquals("New Type", capturedAsset.getType());
         assertEquals("New Description", capturedAsset.getDescription());
+        verify(changeEventRepository, times(1)).append(ChangeType.ASSET_CREATED, asset.getId(), null);
     }
 
     @Test
-    void shouldUpdateAssetSuccessfully() {
+    void shouldUpdateAssetOptimisticallyInOneStatement() {
+        //given
+        when(assetRepository.updateIfVersionMatches(any(Asset.class))).thenReturn(Optional.of(asset));
+
+        //when
+        Asset result = assetService.update(1L, updateAssetCommand, UpdateLockMode.OPTIMISTIC);
+
+        //then
+        assertSame(asset, result);
+        verify(assetRepository, times(1)).updateIfVersionMatches(assetCaptor.capture());
+        Asset capturedChanges = assetCaptor.getValue();
+
+        assertEquals(1L, capturedChanges.getId());
+        assertEquals("Updated Asset", capturedChanges.getName());
+        assertEquals("Updated Type", capturedChanges.getType());
+        assertEquals("Updated Description", capturedChanges.getDescription());
+        assertEquals(1, capturedChanges.getVersion());
+        verify(assetRepository, never()).findByIdWithLock(any());
+        verify(assetRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldReturnConflictWhenVersionIsStale() {
+        //given
+        when(assetRepository.updateIfVersionMatches(any(Asset.class))).thenReturn(Optional.empty());
+        when(assetRepository.existsById(1L)).thenReturn(true);
+
+        //when
+        AssetServiceException exception = assertThrows(AssetServiceException.class,
+                () -> assetService.update(1L, updateAssetCommand, UpdateLockMode.OPTIMISTIC));
+
+        //then
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenUpdatingMissingAsset() {
+        //given
+        when(assetRepository.updateIfVersionMatches(any(Asset.class))).thenReturn(Optional.empty());
+        when(assetRepository.existsById(1L)).thenReturn(false);
+
+        //when
+        AssetServiceException exception = assertThrows(AssetServiceException.class,
+                () -> assetService.update(1L, updateAssetCommand, UpdateLockMode.OPTIMISTIC));
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    void shouldUpdateLockedAssetInPlace() {
         //given
         when(assetRepository.findByIdWithLock(1L)).thenReturn(Optional.of(asset));
-        when(assetRepository.saveAndFlush(any(Asset.class))).thenReturn(asset);
 
         //when
-        assetService.update(1L, updateAssetCommand);
+        Asset result = assetService.update(1L, updateAssetCommand, UpdateLockMode.PESSIMISTIC);
+
+        //then
+        assertSame(asset, result);
+        assertEquals("Updated Asset", result.getName());
+        assertEquals("Updated Type", result.getType());
+        assertEquals("Updated Description", result.getDescription());
+        verify(assetRepository, times(1)).flush();
+        verify(assetRepository, never()).saveAndFlush(any());
+        verify(assetRepository, never()).updateIfVersionMatches(any());
+    }
+
+    @Test
+    void shouldRejectInvalidUpdate() {
+        //given
+        UpdateAssetCommand invalidCommand = new UpdateAssetCommand("", "Updated Type", null, 0);
+
+        //when
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> assetService.update(1L, invalidCommand, UpdateLockMode.OPTIMISTIC));
+
+        //then
+        assertEquals("Asset name cannot be empty", exception.getMessage());
+        verifyNoInteractions(assetRepository);
+    }
+
+    @Test
+    void shouldFetchAssetPage() {
+        //given
+        AssetRow row = new AssetRow(1L, "Test Asset", "Test Type", "Test Description", 0);
+        when(assetRepository.findRowsAfter(0L, Limit.of(11))).thenReturn(List.of(row));
+
+        //when
+        KeysetPage<AssetRow> page = assetService.findPage(AssetSearchCommand.NONE, null, 10);
 
         //then
-        verify(assetRepository, times(1)).saveAndFlush(assetCaptor.capture());
-        Asset capturedUpdatedAsset = assetCaptor.getValue();
+        assertEquals(1, page.items().size());
+        assertNull(page.next());
+        verify(assetRepository, times(1)).findRowsAfter(0L, Limit.of(11));
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenMoreAssetsExist() {
+        //given
+        AssetRow row = new AssetRow(1L, "Test Asset", "Test Type", "Test Description", 0);
+        AssetRow nextRow = new AssetRow(2L, "Next Asset", "Test Type", null, 0);
+        when(assetRepository.findRowsAfter(0L, Limit.of(2))).thenReturn(List.of(row, nextRow));
+
+        //when
+        KeysetPage<AssetRow> page = assetService.findPage(AssetSearchCommand.NONE, null, 1);
 
-        assertEquals("Updated Asset", capturedUpdatedAsset.getName());
-        assertEquals("Updated Type", capturedUpdatedAsset.getType());
-        assertEquals("Updated Description", capturedUpdatedAsset.getDescription());
+        //then
+        assertEquals(List.of(row), page.items());
+        assertEquals(1L, KeysetPage.decodeCursor(page.next()));
     }
 
     @Test
-    void shouldFetchAllAssets() {
+    void shouldSearchWhenAnyFilterIsSet() {
         //given
-        when(assetRepository.findAll()).thenReturn(List.of(asset));
+        AssetSearchCommand search = new AssetSearchCommand("Test Type", " ", null);
+        AssetRow row = new AssetRow(1L, "Test Asset", "Test Type", "Test Description", 0);
+        when(assetRepository.search(search, 0L, 11)).thenReturn(List.of(row));
+
+        //when
+        KeysetPage<AssetRow> page = assetService.findPage(search, null, 10);
+
+        //then
+        assertEquals(List.of(row), page.items());
+        assertNull(search.namePrefix());
+        verify(assetRepository, never()).findRowsAfter(any(), any());
+    }
 
+    @Test
+    void shouldThrowExceptionWhenPageLimitOutOfRange() {
         //when
-        List<Asset> assets = assetService.findAll();
+        AssetServiceException exception = assertThrows(AssetServiceException.class, () -> {
+            assetService.findPage(AssetSearchCommand.NONE, null, AssetService.MAX_PAGE_SIZE + 1);
+        });
 
         //then
-        assertEquals(1, assets.size());
-        verify(assetRepository, times(1)).findAll();
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(assetRepository);
     }
 
     @Test
     void shouldFindAssetById() {
         //given
-        when(assetRepository.findById(1L)).thenReturn(Optional.of(asset));
+        when(assetRepository.findRowById(1L)).thenReturn(Optional.of(
+                new AssetRow(1L, asset.getName(), asset.getType(), asset.getDescription(), 3)));
 
         //when
-        Asset foundAsset = assetService.findById(1L);
+        AssetRow foundAsset = assetService.findById(1L);
 
         //then
-        assertEquals(asset.getId(), foundAsset.getId());
-        assertEquals(asset.getName(), foundAsset.getName());
-        verify(assetRepository, times(1)).findById(1L);
+        assertEquals(asset.getName(), foundAsset.name());
+        assertEquals(asset.getDescription(), foundAsset.description());
+        assertEquals(3, foundAsset.version());
+        verify(assetRepository, times(1)).findRowById(1L);
+        verify(assetRepository, never()).findById(any());
     }
 
     @Test
     void shouldThrowExceptionWhenAssetNotFoundById() {
         //given
-        when(assetRepository.findById(1L)).thenReturn(Optional.empty());
+        when(assetRepository.findRowById(1L)).thenReturn(Optional.empty());
 
         //when
         AssetServiceException exception = assertThrows(AssetServiceException.class, () -> {
@@ -133,20 +275,22 @@ class AssetServiceTest {
     @Test
     void shouldDeleteAssetById() {
         //given
-        when(assetRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(assetRepository).deleteById(1L);
+        when(assetRepository.deleteAllByIdIn(List.of(1L))).thenReturn(Set.of(1L));
 
         //when
         assetService.deleteById(1L);
 
         //then
-        verify(assetRepository, times(1)).deleteById(1L);
+        verify(assetRepository, times(1)).deleteAllByIdIn(List.of(1L));
+        verify(assetRepository, never()).existsById(any());
+        verify(assetRepository, never()).deleteById(any());
+        verify(changeEventRepository, times(1)).append(ChangeType.ASSET_DELETED, 1L, null);
     }
 
     @Test
     void shouldThrowExceptionWhenDeletingNonExistingAsset() {
         //given
-        when(assetRepository.existsById(1L)).thenReturn(false);
+        when(assetRepository.deleteAllByIdIn(List.of(1L))).thenReturn(Set.of());
 
         //when
         AssetServiceException exception = assertThrows(AssetServiceException.class, () -> {
@@ -159,31 +303,116 @@ class AssetServiceTest {
     }
 
     @Test
-    void shouldFindAssetByIdWithGroups() {
+    void shouldDeleteDistinctAssetIdsInBulk() {
         //given
-        when(assetRepository.findByIdWithGroups(1L)).thenReturn(Optional.of(asset));
+        when(assetRepository.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(Set.of(1L));
 
         //when
-        Asset foundAsset = assetService.findByIdWithGroups(1L);
+        DeleteResultDTO result = assetService.deleteAllById(new AssetIdsCommand(Arrays.asList(1L, null, 2L, 1L)));
+
+        //then
+        assertEquals(new DeleteResultDTO(2, 1), result);
+    }
+
+    @Test
+    void shouldRejectEmptyBulkDelete() {
+        //when
+        AssetServiceException exception = assertThrows(AssetServiceException.class, () -> {
+            assetService.deleteAllById(new AssetIdsCommand(List.of()));
+        });
 
         //then
-        assertEquals(asset.getId(), foundAsset.getId());
-        assertEquals(asset.getName(), foundAsset.getName());
-        verify(assetRepository, times(1)).findByIdWithGroups(1L);
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(assetRepository);
     }
 
     @Test
-    void shouldThrowExceptionWhenFindingAssetWithGroupsNotFound() {
+    void shouldPassExistenceCheckForExistingAsset() {
         //given
-        when(assetRepository.findByIdWithGroups(1L)).thenReturn(Optional.empty());
+        when(assetRepository.existsById(1L)).thenReturn(true);
+
+        //when
+        assetService.requireExists(1L);
+
+        //then
+        verify(assetRepository, times(1)).existsById(1L);
+        verify(assetRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenRequiredAssetNotFound() {
+        //given
+        when(assetRepository.existsById(1L)).thenReturn(false);
 
         //when
         AssetServiceException exception = assertThrows(AssetServiceException.class, () -> {
-            assetService.findByIdWithGroups(1L);
+            assetService.requireExists(1L);
         });
 
         //then
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("Asset with id 1 not found", exception.getReason());
     }
+
+    @Test
+    void shouldBatchCreateValidAssetsAndRejectInvalidOnes() {
+        //given
+        BatchAssetCommand command = new BatchAssetCommand(
+                List.of(createAssetCommand, new CreateAssetCommand("", "Type", null)), null, null);
+        when(assetRepository.insertAll(anyList())).thenReturn(List.of(10L));
+
+        //when
+        BatchAssetResultDTO result = assetService.batch(command);
+
+        //then
+        assertEquals(new BatchAssetResultDTO.ItemResult(0, 10L, "201", null), result.create().get(0));
+        assertEquals("400", result.create().get(1).status());
+        assertEquals("Asset name cannot be empty", result.create().get(1).message());
+        verify(assetRepository, times(1)).insertAll(argThat(assets -> assets.size() == 1));
+    }
+
+    @Test
+    void shouldReportConflictAndNotFoundForFailedBatchUpdates() {
+        //given
+        BatchAssetCommand command = new BatchAssetCommand(null, List.of(
+                new BatchAssetCommand.Update(1L, "Name", "Type", null, 0),
+                new BatchAssetCommand.Update(2L, "Name", "Type", null, 0),
+                new BatchAssetCommand.Update(3L, "Name", "Type", null, 0)), null);
+        when(assetRepository.updateAll(anyList())).thenReturn(new int[]{1, 0, 0});
+        when(assetRepository.findExistingIds(List.of(2L, 3L))).thenReturn(Set.of(2L));
+
+        //when
+        BatchAssetResultDTO result = assetService.batch(command);
+
+        //then
+        assertEquals(List.of("200", "409", "404"), result.update().stream().map(BatchAssetResultDTO.ItemResult::status).toList());
+        assertEquals(1, meterRegistry.counter(GlobalExceptionHandler.CONFLICTS_METRIC, "exception", "AssetServiceException").count());
+    }
+
+    @Test
+    void shouldReportNotFoundForMissingBatchDeletes() {
+        //given
+        BatchAssetCommand command = new BatchAssetCommand(null, null, List.of(1L, 2L));
+        when(assetRepository.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(Set.of(1L));
+
+        //when
+        BatchAssetResultDTO result = assetService.batch(command);
+
+        //then
+        assertEquals(List.of("204", "404"), result.delete().stream().map(BatchAssetResultDTO.ItemResult::status).toList());
+    }
+
+    @Test
+    void shouldDeleteRepeatedBatchIdOnceAndReportRepeatsAsNotFound() {
+        //given
+        BatchAssetCommand command = new BatchAssetCommand(null, null, List.of(1L, 1L, 2L));
+        when(assetRepository.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+
+        //when
+        BatchAssetResultDTO result = assetService.batch(command);
+
+        //then
+        assertEquals(List.of("204", "404", "204"), result.delete().stream().map(BatchAssetResultDTO.ItemResult::status).toList());
+        verify(assetRepository).deleteAllByIdIn(List.of(1L, 2L));
+    }
 }
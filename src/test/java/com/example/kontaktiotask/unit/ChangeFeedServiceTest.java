@@ -0,0 +1,90 @@
+package com.example.kontaktiotask.unit;
+
+import com.example.kontaktiotask.config.ChangeFeedProperties;
+import com.example.kontaktiotask.exception.ChangeFeedServiceException;
+import com.example.kontaktiotask.model.dto.ChangeEventDTO;
+import com.example.kontaktiotask.model.dto.ChangeFeedDTO;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.repository.ChangeEventRepository;
+import com.example.kontaktiotask.service.ChangeFeedService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeEventRepository changeEventRepository;
+
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        changeFeedService = new ChangeFeedService(changeEventRepository,
+                new ChangeFeedProperties(500, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void shouldResumeAfterLastEventReturned() {
+        //given
+        ChangeEventDTO event = new ChangeEventDTO(8L, ChangeType.ASSET_UPDATED, 3L, null, Instant.now());
+        when(changeEventRepository.findAfter(5L, 100)).thenReturn(List.of(event));
+
+        //when
+        ChangeFeedDTO feed = changeFeedService.read(5L, 100);
+
+        //then
+        assertEquals(List.of(event), feed.events());
+        assertEquals(8L, KeysetPage.decodeCursor(feed.next()));
+    }
+
+    @Test
+    void shouldKeepPositionWhenNothingChanged() {
+        //given
+        when(changeEventRepository.findAfter(5L, 100)).thenReturn(List.of());
+
+        //when
+        ChangeFeedDTO feed = changeFeedService.read(5L, 100);
+
+        //then
+        assertTrue(feed.events().isEmpty());
+        assertEquals(5L, KeysetPage.decodeCursor(feed.next()));
+    }
+
+    @Test
+    void shouldRejectLimitOutOfRange() {
+        //when
+        ChangeFeedServiceException exception = assertThrows(ChangeFeedServiceException.class,
+                () -> changeFeedService.read(0L, ChangeFeedService.MAX_PAGE_SIZE + 1));
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(changeEventRepository, never()).findAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldPublishInConfiguredBatches() {
+        //given
+        when(changeEventRepository.publishPending(500)).thenReturn(3);
+
+        //when
+        int published = changeFeedService.publishPending();
+
+        //then
+        assertEquals(3, published);
+        verify(changeEventRepository, times(1)).publishPending(500);
+    }
+}
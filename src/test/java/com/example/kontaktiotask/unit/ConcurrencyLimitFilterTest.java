@@ -0,0 +1,41 @@
+package com.example.kontaktiotask.unit;
+
+import com.example.kontaktiotask.config.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(ObjectMapper.class)
+            .withUserConfiguration(ConcurrencyLimitFilter.class);
+
+    @Test
+    void shouldStartWithDefaultAcquireTimeout() {
+        //when
+        contextRunner.withPropertyValues("app.concurrency-limit.max-concurrent-requests=10")
+                //then
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    assertNotNull(context.getBean(ConcurrencyLimitFilter.class));
+                });
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimit() {
+        //when
+        contextRunner.withPropertyValues("app.concurrency-limit.max-concurrent-requests=0")
+                //then
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void shouldStayOffWithoutLimit() {
+        //when
+        contextRunner.run(context -> assertNull(context.getBeanProvider(ConcurrencyLimitFilter.class).getIfAvailable()));
+    }
+}
@@ -1,11 +1,22 @@
 package com.example.kontaktiotask.unit;
 
+import com.example.kontaktiotask.exception.AssetServiceException;
 import com.example.kontaktiotask.exception.GroupServiceException;
 import com.example.kontaktiotask.model.Asset;
 import com.example.kontaktiotask.model.Group;
+import com.example.kontaktiotask.model.command.AssetIdsCommand;
+import com.example.kontaktiotask.model.command.AssetSortOrder;
 import com.example.kontaktiotask.model.command.CreateGroupCommand;
+import com.example.kontaktiotask.model.command.MoveGroupCommand;
+import com.example.kontaktiotask.model.dto.AssetRow;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.GroupDTO;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.model.dto.MembershipChangeDTO;
+import com.example.kontaktiotask.repository.ChangeEventRepository;
 import com.example.kontaktiotask.repository.GroupRepository;
 import com.example.kontaktiotask.service.AssetService;
+import com.example.kontaktiotask.service.GroupAssetsCacheEvictor;
 import com.example.kontaktiotask.service.GroupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +28,13 @@ import org.springframework.http.HttpStatus;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 class GroupServiceTest {
@@ -32,6 +45,12 @@ class GroupServiceTest {
     @Mock
     private AssetService assetService;
 
+    @Mock
+    private ChangeEventRepository changeEventRepository;
+
+    @Mock
+    private GroupAssetsCacheEvictor groupAssetsCacheEvictor;
+
     @InjectMocks
     private GroupService groupService;
 
@@ -59,7 +78,7 @@ class GroupServiceTest {
                 .groups(new HashSet<>())
                 .build();
 
-        createGroupCommand = new CreateGroupCommand("New Group", "Group Description");
+        createGroupCommand = new CreateGroupCommand("New Group", "Group Description", null);
     }
 
     @Test
@@ -76,44 +95,174 @@ class GroupServiceTest {
 
         assertEquals("New Group", capturedGroup.getName());
         assertEquals("Group Description", capturedGroup.getDescription());
+        verify(changeEventRepository, times(1)).append(ChangeType.GROUP_CREATED, null, group.getId());
+    }
+
+    @Test
+    void shouldCreateNestedGroupUnderHierarchyLock() {
+        //given
+        group.setParentId(7L);
+        when(groupRepository.existsById(7L)).thenReturn(true);
+        when(groupRepository.saveAndFlush(any(Group.class))).thenReturn(group);
+
+        //when
+        groupService.create(new CreateGroupCommand("Zone", null, 7L));
+
+        //then
+        verify(groupRepository, times(1)).saveAndFlush(groupCaptor.capture());
+        assertEquals(7L, groupCaptor.getValue().getParentId());
+        var inOrder = inOrder(groupRepository);
+        inOrder.verify(groupRepository).lockHierarchy();
+        inOrder.verify(groupRepository).saveAndFlush(any(Group.class));
+        inOrder.verify(groupRepository).insertAncestors(1L, 7L);
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenCreatingGroupUnderMissingParent() {
+        //given
+        when(groupRepository.existsById(7L)).thenReturn(false);
+
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () ->
+                groupService.create(new CreateGroupCommand("Zone", null, 7L)));
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(groupRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldMoveGroupAndPublishChange() {
+        //given
+        when(groupRepository.existsById(any())).thenReturn(true);
+        when(groupRepository.isAncestor(1L, 2L)).thenReturn(false);
+
+        //when
+        groupService.move(1L, new MoveGroupCommand(2L));
+
+        //then
+        verify(groupRepository, times(1)).moveSubtree(1L, 2L);
+        verify(changeEventRepository, times(1)).append(ChangeType.GROUP_MOVED, null, 1L);
+    }
+
+    @Test
+    void shouldRejectMovingGroupUnderItsDescendant() {
+        //given
+        when(groupRepository.existsById(any())).thenReturn(true);
+        when(groupRepository.isAncestor(1L, 2L)).thenReturn(true);
+
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () ->
+                groupService.move(1L, new MoveGroupCommand(2L)));
+
+        //then
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(groupRepository, never()).moveSubtree(any(), any());
     }
 
     @Test
     void shouldFindAllGroupsSuccessfully() {
         //given
-        when(groupRepository.findAll()).thenReturn(List.of(group));
+        when(groupRepository.findAllDtos()).thenReturn(List.of(GroupDTO.fromEntity(group)));
 
         //when
         var groups = groupService.findAll();
 
         //then
-        assertEquals(1, groups.size());
-        verify(groupRepository, times(1)).findAll();
+        assertEquals(List.of(new GroupDTO(1L, "Test Group", "Test Description", null)), groups);
+        verify(groupRepository, times(1)).findAllDtos();
+        verify(groupRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldFindGroupAssetsThroughProjection() {
+        //given
+        AssetRow row = new AssetRow(1L, "Test Asset", "Test Type", "Test Description", 0);
+        when(groupRepository.findAssetPage(1L, AssetSortOrder.ID_ASC, null, 101)).thenReturn(List.of(row));
+
+        //when
+        KeysetPage<AssetRow> page = groupService.findGroupAssets(1L, AssetSortOrder.ID_ASC, null, 100);
+
+        //then
+        assertEquals(List.of(row), page.items());
+        assertNull(page.next());
+        verify(groupRepository, never()).findByIdWithAssets(any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenListingAssetsOfMissingGroup() {
+        //given
+        when(groupRepository.findAssetPage(1L, AssetSortOrder.ID_ASC, null, 101)).thenReturn(List.of());
+        when(groupRepository.existsById(1L)).thenReturn(false);
+
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class,
+                () -> groupService.findGroupAssets(1L, AssetSortOrder.ID_ASC, null, 100));
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    void shouldReturnNameCursorWhenGroupHasMoreAssets() {
+        //given
+        AssetRow first = new AssetRow(7L, "alpha", "Test Type", null, 0);
+        AssetRow second = new AssetRow(3L, "beta", "Test Type", null, 0);
+        when(groupRepository.findAssetPage(1L, AssetSortOrder.NAME_ASC, null, 2)).thenReturn(List.of(first, second));
+
+        //when
+        KeysetPage<AssetRow> page = groupService.findGroupAssets(1L, AssetSortOrder.NAME_ASC, null, 1);
+
+        //then
+        assertEquals(List.of(first), page.items());
+        assertEquals(new KeysetPage.Position(7L, "alpha"), KeysetPage.decodePosition(page.next()));
+    }
+
+    @Test
+    void shouldRejectGroupAssetsLimitOutOfRange() {
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class,
+                () -> groupService.findGroupAssets(1L, AssetSortOrder.ID_ASC, null, AssetService.MAX_PAGE_SIZE + 1));
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(groupRepository, never()).findAssetPage(any(), any(), any(), anyInt());
     }
 
     @Test
     void shouldAddAssetToGroupSuccessfully() {
         //given
-        when(groupRepository.findByIdWithAssets(1L)).thenReturn(Optional.of(group));
-        when(assetService.findByIdWithGroups(1L)).thenReturn(asset);
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.addAssets(1L, List.of(1L))).thenReturn(1);
 
         //when
         groupService.addAsset(1L, 1L);
 
         //then
-        verify(groupRepository, times(1)).saveAndFlush(groupCaptor.capture());
-        Group capturedGroup = groupCaptor.getValue();
+        verify(groupRepository, times(1)).incrementVersion(1L);
+        verify(groupRepository, never()).findByIdWithAssets(any());
+        verifyNoInteractions(assetService);
+    }
+
+    @Test
+    void shouldEvictCachedPagesOfChangedGroupAndItsAncestorsOnly() {
+        //given
+        when(groupRepository.existsById(3L)).thenReturn(true);
+        when(groupRepository.addAssets(3L, List.of(1L))).thenReturn(1);
+        when(groupRepository.findAncestorIds(List.of(3L))).thenReturn(Set.of(1L, 2L));
+
+        //when
+        groupService.addAsset(3L, 1L);
 
-        assertTrue(capturedGroup.getAssets().contains(asset));
-        assertTrue(asset.getGroups().contains(capturedGroup));
+        //then
+        verify(groupAssetsCacheEvictor, times(1)).evictAfterCommit(Set.of(1L, 2L, 3L));
     }
 
     @Test
     void shouldThrowConflictWhenAssetAlreadyInGroup() {
         //given
-        group.getAssets().add(asset);
-        when(groupRepository.findByIdWithAssets(1L)).thenReturn(Optional.of(group));
-        when(assetService.findByIdWithGroups(1L)).thenReturn(asset);
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.addAssets(1L, List.of(1L))).thenReturn(0);
 
         //when
         GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
@@ -123,32 +272,47 @@ class GroupServiceTest {
         //then
         assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
         assertEquals("Asset with id 1 already exists in assets", exception.getReason());
+        verify(assetService, times(1)).requireExists(1L);
+        verify(groupRepository, never()).incrementVersion(any());
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenAddingNonExistingAsset() {
+        //given
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.addAssets(1L, List.of(1L))).thenReturn(0);
+        doThrow(new AssetServiceException(HttpStatus.NOT_FOUND, "Asset with id 1 not found"))
+                .when(assetService).requireExists(1L);
+
+        //when
+        AssetServiceException exception = assertThrows(AssetServiceException.class, () -> {
+            groupService.addAsset(1L, 1L);
+        });
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(groupRepository, never()).incrementVersion(any());
     }
 
     @Test
     void shouldRemoveAssetFromGroupSuccessfully() {
         //given
-        group.getAssets().add(asset);
-        asset.getGroups().add(group);
-        when(groupRepository.findByIdWithAssets(1L)).thenReturn(Optional.of(group));
-        when(assetService.findByIdWithGroups(1L)).thenReturn(asset);
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.removeAssets(1L, List.of(1L))).thenReturn(1);
 
         //when
         groupService.removeAsset(1L, 1L);
 
         //then
-        verify(groupRepository, times(1)).saveAndFlush(groupCaptor.capture());
-        Group capturedGroup = groupCaptor.getValue();
-
-        assertFalse(capturedGroup.getAssets().contains(asset));
-        assertFalse(asset.getGroups().contains(capturedGroup));
+        verify(groupRepository, times(1)).incrementVersion(1L);
+        verifyNoInteractions(assetService);
     }
 
     @Test
     void shouldThrowNotFoundWhenRemovingNonExistingAssetFromGroup() {
         //given
-        when(groupRepository.findByIdWithAssets(1L)).thenReturn(Optional.of(group));
-        when(assetService.findByIdWithGroups(1L)).thenReturn(asset);
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.removeAssets(1L, List.of(1L))).thenReturn(0);
 
         //when
         GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
@@ -158,12 +322,13 @@ class GroupServiceTest {
         //then
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("Asset with id 1 not found in assets", exception.getReason());
+        verify(assetService, times(1)).requireExists(1L);
     }
 
     @Test
     void shouldThrowNotFoundWhenGroupDoesNotExist() {
         //given
-        when(groupRepository.findByIdWithAssets(1L)).thenReturn(Optional.empty());
+        when(groupRepository.existsById(1L)).thenReturn(false);
 
         //when
         GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
@@ -173,5 +338,133 @@ class GroupServiceTest {
         //then
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("Group with id 1 not found", exception.getReason());
+        verify(groupRepository, never()).addAssets(any(), any());
+    }
+
+    @Test
+    void shouldCountGroupAssets() {
+        //given
+        when(groupRepository.countAssets(1L)).thenReturn(Optional.of(3L));
+
+        //when
+        long count = groupService.countAssets(1L);
+
+        //then
+        assertEquals(3L, count);
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenCountingAssetsOfMissingGroup() {
+        //given
+        when(groupRepository.countAssets(1L)).thenReturn(Optional.empty());
+
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
+            groupService.countAssets(1L);
+        });
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Group with id 1 not found", exception.getReason());
+    }
+
+    @Test
+    void shouldConfirmMembershipWithoutCheckingGroup() {
+        //given
+        when(groupRepository.containsAsset(1L, 1L)).thenReturn(true);
+
+        //when
+        groupService.requireMember(1L, 1L);
+
+        //then
+        verify(groupRepository, never()).existsById(any());
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenAssetNotMember() {
+        //given
+        when(groupRepository.containsAsset(1L, 1L)).thenReturn(false);
+        when(groupRepository.existsById(1L)).thenReturn(true);
+
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
+            groupService.requireMember(1L, 1L);
+        });
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Asset with id 1 not found in assets", exception.getReason());
+    }
+
+    @Test
+    void shouldAddAssetsInBulkAndBumpGroupVersion() {
+        //given
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.addAssets(1L, List.of(1L, 2L))).thenReturn(2);
+
+        //when
+        MembershipChangeDTO result = groupService.addAssets(1L, new AssetIdsCommand(List.of(1L, 2L, 1L)));
+
+        //then
+        assertEquals(new MembershipChangeDTO(2, 2), result);
+        verify(groupRepository, times(1)).incrementVersion(1L);
+        verify(groupRepository, never()).findByIdWithAssets(any());
+    }
+
+    @Test
+    void shouldApplyQueuedMembershipChangesAndBumpOnlyChangedGroups() {
+        //given
+        when(groupRepository.addAssets(1L, List.of(1L, 2L))).thenReturn(2);
+        when(groupRepository.removeAssets(1L, List.of(3L))).thenReturn(1);
+        when(groupRepository.removeAssets(2L, List.of(4L))).thenReturn(0);
+
+        //when
+        int affected = groupService.applyMembershipChanges(Map.of(1L, List.of(1L, 2L)), Map.of(1L, List.of(3L), 2L, List.of(4L)));
+
+        //then
+        assertEquals(3, affected);
+        verify(groupRepository, times(1)).incrementVersion(1L);
+        verify(groupRepository, never()).incrementVersion(2L);
+        verify(groupRepository, never()).existsById(any());
+    }
+
+    @Test
+    void shouldNotBumpGroupVersionWhenNothingRemoved() {
+        //given
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.removeAssets(1L, List.of(5L))).thenReturn(0);
+
+        //when
+        MembershipChangeDTO result = groupService.removeAssets(1L, new AssetIdsCommand(List.of(5L)));
+
+        //then
+        assertEquals(new MembershipChangeDTO(1, 0), result);
+        verify(groupRepository, never()).incrementVersion(any());
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenBulkAddingToMissingGroup() {
+        //given
+        when(groupRepository.existsById(1L)).thenReturn(false);
+
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
+            groupService.addAssets(1L, new AssetIdsCommand(List.of(1L)));
+        });
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(groupRepository, never()).addAssets(any(), any());
+    }
+
+    @Test
+    void shouldThrowBadRequestWhenBulkAssetIdsEmpty() {
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () -> {
+            groupService.addAssets(1L, new AssetIdsCommand(List.of()));
+        });
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
     }
 }
@@ -0,0 +1,139 @@
+package com.example.kontaktiotask.unit;
+
+import com.example.kontaktiotask.exception.GroupServiceException;
+import com.example.kontaktiotask.model.dto.ChangeEventDTO;
+import com.example.kontaktiotask.model.dto.ChangeFeedDTO;
+import com.example.kontaktiotask.model.dto.ChangeType;
+import com.example.kontaktiotask.model.dto.KeysetPage;
+import com.example.kontaktiotask.model.dto.MembershipQueryDTO;
+import com.example.kontaktiotask.service.ChangeFeedService;
+import com.example.kontaktiotask.service.GroupService;
+import com.example.kontaktiotask.service.MembershipIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class MembershipIndexTest {
+
+    @Mock
+    private GroupService groupService;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    private MembershipIndex membershipIndex;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        // group 1: assets 1-4, group 2: assets 2-5, group 3: assets 4 and 6, group 4: no members
+        doAnswer(invocation -> {
+            BiConsumer<Long, Long> consumer = invocation.getArgument(0);
+            List.of(1L, 2L, 3L, 4L).forEach(assetId -> consumer.accept(1L, assetId));
+            List.of(2L, 3L, 4L, 5L).forEach(assetId -> consumer.accept(2L, assetId));
+            List.of(4L, 6L).forEach(assetId -> consumer.accept(3L, assetId));
+            consumer.accept(4L, null);
+            return null;
+        }).when(groupService).forEachMembership(any());
+        when(changeFeedService.findLatestPosition()).thenReturn(10L);
+        when(changeFeedService.read(anyLong(), anyInt())).thenReturn(new ChangeFeedDTO(List.of(), null));
+
+        membershipIndex = new MembershipIndex(groupService, changeFeedService, new SimpleMeterRegistry());
+        membershipIndex.reload();
+    }
+
+    @Test
+    void shouldIntersectUniteAndSubtractGroups() {
+        //when
+        MembershipQueryDTO allOf = membershipIndex.query(List.of(1L, 2L), List.of(), List.of(3L), null, 100);
+        MembershipQueryDTO anyOf = membershipIndex.query(List.of(), List.of(3L, 4L), List.of(), null, 100);
+        MembershipQueryDTO both = membershipIndex.query(List.of(2L), List.of(1L, 3L), List.of(), null, 100);
+
+        //then
+        assertEquals(new MembershipQueryDTO(2, List.of(2L, 3L), null), allOf);
+        assertEquals(new MembershipQueryDTO(2, List.of(4L, 6L), null), anyOf);
+        assertEquals(new MembershipQueryDTO(3, List.of(2L, 3L, 4L), null), both);
+    }
+
+    @Test
+    void shouldPageResultsByAssetId() {
+        //when
+        MembershipQueryDTO first = membershipIndex.query(List.of(1L), List.of(), List.of(), null, 3);
+        MembershipQueryDTO second = membershipIndex.query(List.of(1L), List.of(), List.of(), KeysetPage.decodeCursor(first.next()), 3);
+
+        //then
+        assertEquals(List.of(1L, 2L, 3L), first.assetIds());
+        assertEquals(4, first.total());
+        assertEquals(List.of(4L), second.assetIds());
+        assertNull(second.next());
+    }
+
+    @Test
+    void shouldFindGroupsOfAsset() {
+        //when
+        List<Long> groupIds = membershipIndex.findGroupIds(4L);
+
+        //then
+        assertEquals(List.of(1L, 2L, 3L), groupIds);
+        assertEquals(List.of(), membershipIndex.findGroupIds(99L));
+    }
+
+    @Test
+    void shouldApplyChangeFeedAfterLoadedPosition() {
+        //given
+        when(changeFeedService.read(10L, ChangeFeedService.MAX_PAGE_SIZE)).thenReturn(new ChangeFeedDTO(List.of(
+                event(11L, ChangeType.GROUP_CREATED, null, 5L),
+                event(12L, ChangeType.GROUP_ASSET_ADDED, 1L, 5L),
+                event(13L, ChangeType.GROUP_ASSET_REMOVED, 4L, 3L),
+                event(14L, ChangeType.ASSET_DELETED, 2L, null)), null));
+
+        //when
+        membershipIndex.refresh();
+
+        //then
+        assertEquals(List.of(1L, 5L), membershipIndex.findGroupIds(1L));
+        assertEquals(List.of(1L, 2L), membershipIndex.findGroupIds(4L));
+        assertEquals(List.of(), membershipIndex.findGroupIds(2L));
+        membershipIndex.refresh();
+        verify(changeFeedService).read(14L, ChangeFeedService.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void shouldThrowNotFoundForUnknownGroup() {
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () ->
+                membershipIndex.query(List.of(1L), List.of(), List.of(99L), null, 100));
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Group with id 99 not found", exception.getReason());
+    }
+
+    @Test
+    void shouldRejectQueryWithoutAllOfOrAnyOf() {
+        //when
+        GroupServiceException exception = assertThrows(GroupServiceException.class, () ->
+                membershipIndex.query(List.of(), List.of(), List.of(3L), null, 100));
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("At least one of allOf and anyOf is required", exception.getReason());
+    }
+
+    private ChangeEventDTO event(long position, ChangeType type, Long assetId, Long groupId) {
+        return new ChangeEventDTO(position, type, assetId, groupId, Instant.now());
+    }
+}
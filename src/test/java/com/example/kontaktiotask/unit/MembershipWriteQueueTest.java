@@ -0,0 +1,50 @@
+package com.example.kontaktiotask.unit;
+
+import com.example.kontaktiotask.config.MembershipQueueProperties;
+import com.example.kontaktiotask.service.GroupService;
+import com.example.kontaktiotask.service.MembershipWriteQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MembershipWriteQueueTest {
+
+    @Mock
+    private GroupService groupService;
+
+    private MembershipWriteQueue membershipWriteQueue;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        MembershipQueueProperties properties = new MembershipQueueProperties(true, 10, 1, 2, Duration.ofHours(1));
+        membershipWriteQueue = new MembershipWriteQueue(groupService, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldApplyAtMostMaxBatchesPerFlush() {
+        //given
+        for (long assetId = 1; assetId <= 3; assetId++) {
+            membershipWriteQueue.add(1L, assetId);
+        }
+
+        //when
+        membershipWriteQueue.flush();
+
+        //then
+        verify(groupService, times(2)).applyMembershipChanges(any(), any());
+
+        //when
+        membershipWriteQueue.flush();
+
+        //then
+        verify(groupService, times(3)).applyMembershipChanges(any(), any());
+    }
+}